@@ -48,9 +48,10 @@ echo ""
 
 # Atualizar Lambda
 echo "📤 Atualizando Lambda..."
+# Preserva as demais variáveis (inclusive USER_POOL_IDS/CLIENT_IDS) e troca só a URL
 aws lambda update-function-configuration \
     --function-name lanchonete-auth-lambda \
-    --environment "Variables={CLIENT_ID=$CLIENT_ID,USER_POOL_ID=$USER_POOL_ID,CLIENTES_SERVICE_URL=http://$CLIENTES_URL}" \
+    --environment "$(echo $CURRENT_CONFIG | jq -c --arg url "http://$CLIENTES_URL" '{Variables: (. + {CLIENTES_SERVICE_URL: $url})}')" \
     --query 'Environment.Variables' \
     --output table
 
@@ -69,6 +69,23 @@ print_info() {
     echo -e "${BLUE}ℹ $1${NC}"
 }
 
+# Gera um CPF aleatório com dígitos verificadores válidos (a Lambda rejeita os inválidos)
+gerar_cpf_valido() {
+    local base=$(printf "%09d" $(( (RANDOM * RANDOM) % 1000000000 )))
+    local soma=0 i dv1 dv2
+    for i in 0 1 2 3 4 5 6 7 8; do
+        soma=$((soma + ${base:$i:1} * (10 - i)))
+    done
+    dv1=$(( soma * 10 % 11 % 10 ))
+    soma=0
+    for i in 0 1 2 3 4 5 6 7 8; do
+        soma=$((soma + ${base:$i:1} * (11 - i)))
+    done
+    soma=$((soma + dv1 * 2))
+    dv2=$(( soma * 10 % 11 % 10 ))
+    echo "${base}${dv1}${dv2}"
+}
+
 # Função para fazer requisições e verificar status
 make_request() {
     local method=$1
@@ -231,7 +248,7 @@ fi
 
 # Testar criação de pedido sem token
 print_info "Tentando criar pedido sem token JWT..."
-order_data='{"cpfCliente": "12345678900", "itens": [{"produtoId": 1, "quantidade": 1}]}'
+order_data='{"cpfCliente": "52998224725", "itens": [{"produtoId": 1, "quantidade": 1}]}'
 unauth_order=$(make_request POST "$API_GATEWAY_URL/autoatendimento/pedidos/checkout" "$order_data" "" "401" 2>/dev/null)
 if [ $? -eq 0 ]; then
     print_success "Endpoint de checkout protegido corretamente"
@@ -279,7 +296,7 @@ fi
 print_header "TESTE 3: CLIENTE NOVO (CPF inexistente)"
 
 # Gerar CPF aleatório
-random_cpf=$(printf "%011d" $((RANDOM * RANDOM)))
+random_cpf=$(gerar_cpf_valido)
 print_info "Testando com CPF novo: $random_cpf"
 
 print_info "Autenticando cliente novo..."
@@ -310,7 +327,7 @@ fi
 print_header "TESTE 4: CLIENTE CRIADO VIA ENDPOINT"
 
 # Gerar CPF aleatório
-endpoint_cpf=$(printf "%011d" $((RANDOM * RANDOM + 1000)))
+endpoint_cpf=$(gerar_cpf_valido)
 print_info "Criando cliente via endpoint com CPF: $endpoint_cpf"
 
 # Criar cliente via API
@@ -342,40 +359,40 @@ fi
 # TESTE 5: CLIENTE PRÉ-EXISTENTE
 # ═══════════════════════════════════════════════════════════
 
-print_header "TESTE 5: CLIENTE PRÉ-EXISTENTE NO BANCO (João da Silva - 55555555555)"
+print_header "TESTE 5: CLIENTE PRÉ-EXISTENTE NO BANCO (João da Silva - 52998224725)"
 
 print_info "Verificando se cliente existe no banco..."
-client=$(curl -s "$AUTOATENDIMENTO_ALB/clientes/cpf/55555555555")
-if echo "$client" | grep -q "55555555555"; then
+client=$(curl -s "$AUTOATENDIMENTO_ALB/clientes/cpf/52998224725")
+if echo "$client" | grep -q "52998224725"; then
     print_success "Cliente João da Silva encontrado no banco"
     echo "$client" | jq '.' 2>/dev/null || echo "$client"
 
     print_info "Autenticando cliente pré-existente..."
-    auth_response=$(make_request POST "$API_GATEWAY_URL/auth/identificar" '{"cpf": "55555555555"}' "" "200")
+    auth_response=$(make_request POST "$API_GATEWAY_URL/auth/identificar" '{"cpf": "52998224725"}' "" "200")
     if [ $? -eq 0 ]; then
         token=$(echo "$auth_response" | jq -r '.accessToken' 2>/dev/null || echo "$auth_response" | grep -o '"accessToken":"[^"]*"' | cut -d'"' -f4)
         tipo=$(echo "$auth_response" | jq -r '.tipo' 2>/dev/null || echo "$auth_response" | grep -o '"tipo":"[^"]*"' | cut -d'"' -f4)
         print_success "Cliente pré-existente autenticado (Tipo: $tipo)"
 
         # Executar fluxo completo
-        test_complete_flow "55555555555" "Cliente Pré-existente (João da Silva)" "$token" "SOBREMESA" "10" "Brownie"
+        test_complete_flow "52998224725" "Cliente Pré-existente (João da Silva)" "$token" "SOBREMESA" "10" "Brownie"
     else
         print_error "Falha na autenticação"
     fi
 else
     print_error "Cliente João da Silva não encontrado no banco"
     print_info "Criando cliente João da Silva..."
-    client_data='{"nome": "João da Silva", "cpf": "55555555555", "email": "joao.silva@lanchonete.com"}'
+    client_data='{"nome": "João da Silva", "cpf": "52998224725", "email": "joao.silva@lanchonete.com"}'
     create_response=$(make_request POST "$AUTOATENDIMENTO_ALB/clientes" "$client_data" "" "201")
     if [ $? -eq 0 ]; then
         print_success "Cliente criado com sucesso"
         # Repetir o teste
         print_info "Tentando autenticar novamente..."
-        auth_response=$(make_request POST "$API_GATEWAY_URL/auth/identificar" '{"cpf": "55555555555"}' "" "200")
+        auth_response=$(make_request POST "$API_GATEWAY_URL/auth/identificar" '{"cpf": "52998224725"}' "" "200")
         if [ $? -eq 0 ]; then
             token=$(echo "$auth_response" | jq -r '.accessToken' 2>/dev/null || echo "$auth_response" | grep -o '"accessToken":"[^"]*"' | cut -d'"' -f4)
             print_success "Cliente autenticado após criação"
-            test_complete_flow "55555555555" "Cliente João da Silva" "$token" "SOBREMESA" "10" "Brownie"
+            test_complete_flow "52998224725" "Cliente João da Silva" "$token" "SOBREMESA" "10" "Brownie"
         fi
     fi
 fi
@@ -52,12 +52,12 @@ resource "aws_api_gateway_rest_api" "lanchonete_api" {
   tags = local.common_tags
 }
 
-# Authorizer do Cognito
+# Authorizer do Cognito (aceita tokens de qualquer um dos user pools)
 resource "aws_api_gateway_authorizer" "cognito_authorizer" {
   name                   = "${var.nome_projeto}-cognito-authorizer"
   rest_api_id            = aws_api_gateway_rest_api.lanchonete_api.id
   type                   = "COGNITO_USER_POOLS"
-  provider_arns          = [data.terraform_remote_state.auth.outputs.user_pool_arn]
+  provider_arns          = data.terraform_remote_state.auth.outputs.user_pool_arns
   identity_source        = "method.request.header.Authorization"
   authorizer_credentials = ""
 }
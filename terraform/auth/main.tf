@@ -1,5 +1,5 @@
 terraform {
-  required_version = ">= 1.0"
+  required_version = ">= 1.1"
   required_providers {
     aws = {
       source  = "hashicorp/aws"
@@ -25,9 +25,12 @@ data "aws_iam_role" "lab_role" {
   name = "LabRole"
 }
 
-# Cognito User Pool para autenticação via CPF
+# Cognito User Pools para autenticação via CPF
+# Vários pools dividem a carga das APIs admin do Cognito; a Lambda distribui os CPFs
+# entre eles por hashing consistente. O primeiro pool mantém o nome original.
 resource "aws_cognito_user_pool" "lanchonete_auth" {
-  name = "${var.nome_projeto}-auth"
+  count = var.quantidade_user_pools
+  name  = count.index == 0 ? "${var.nome_projeto}-auth" : "${var.nome_projeto}-auth-${count.index}"
 
   # CPF será usado como username (sem email)
   # username_attributes não é definido = usar username padrão
@@ -60,10 +63,11 @@ resource "aws_cognito_user_pool" "lanchonete_auth" {
   tags = local.common_tags
 }
 
-# Cognito User Pool Client
+# Cognito User Pool Client (um por pool)
 resource "aws_cognito_user_pool_client" "lanchonete_auth_client" {
+  count        = var.quantidade_user_pools
   name         = "${var.nome_projeto}-auth-client"
-  user_pool_id = aws_cognito_user_pool.lanchonete_auth.id
+  user_pool_id = aws_cognito_user_pool.lanchonete_auth[count.index].id
 
   # Configurações de autenticação (usar apenas novos flows)
   explicit_auth_flows = [
@@ -87,14 +91,18 @@ resource "aws_cognito_user_pool_client" "lanchonete_auth_client" {
   # Não requer secret
   generate_secret = false
 
+  # A Lambda depende de UserNotFoundException para provisionar usuários ausentes
+  prevent_user_existence_errors = "LEGACY"
+
   # Configurações de OAuth
   supported_identity_providers = ["COGNITO"]
 }
 
 # User Pool Domain para hosted UI (se necessário)
 resource "aws_cognito_user_pool_domain" "lanchonete_auth_domain" {
-  domain       = "${var.nome_projeto}-auth-${random_string.domain_suffix.result}"
-  user_pool_id = aws_cognito_user_pool.lanchonete_auth.id
+  count        = var.quantidade_user_pools
+  domain       = count.index == 0 ? "${var.nome_projeto}-auth-${random_string.domain_suffix.result}" : "${var.nome_projeto}-auth-${random_string.domain_suffix.result}-${count.index}"
+  user_pool_id = aws_cognito_user_pool.lanchonete_auth[count.index].id
 }
 
 # String aleatória para domínio único
@@ -102,4 +110,20 @@ resource "random_string" "domain_suffix" {
   length  = 8
   special = false
   upper   = false
-}
\ No newline at end of file
+}
+
+# Recursos criados antes da divisão em vários pools viram o índice 0
+moved {
+  from = aws_cognito_user_pool.lanchonete_auth
+  to   = aws_cognito_user_pool.lanchonete_auth[0]
+}
+
+moved {
+  from = aws_cognito_user_pool_client.lanchonete_auth_client
+  to   = aws_cognito_user_pool_client.lanchonete_auth_client[0]
+}
+
+moved {
+  from = aws_cognito_user_pool_domain.lanchonete_auth_domain
+  to   = aws_cognito_user_pool_domain.lanchonete_auth_domain[0]
+}
@@ -1,24 +1,39 @@
 output "user_pool_id" {
-  description = "ID do Cognito User Pool"
-  value       = aws_cognito_user_pool.lanchonete_auth.id
+  description = "ID do primeiro Cognito User Pool"
+  value       = aws_cognito_user_pool.lanchonete_auth[0].id
 }
 
 output "user_pool_client_id" {
-  description = "ID do Cognito User Pool Client"
-  value       = aws_cognito_user_pool_client.lanchonete_auth_client.id
+  description = "ID do Client do primeiro Cognito User Pool"
+  value       = aws_cognito_user_pool_client.lanchonete_auth_client[0].id
 }
 
 output "user_pool_arn" {
-  description = "ARN do Cognito User Pool"
-  value       = aws_cognito_user_pool.lanchonete_auth.arn
+  description = "ARN do primeiro Cognito User Pool"
+  value       = aws_cognito_user_pool.lanchonete_auth[0].arn
+}
+
+output "user_pool_ids" {
+  description = "IDs de todos os Cognito User Pools, na ordem dos clients"
+  value       = aws_cognito_user_pool.lanchonete_auth[*].id
+}
+
+output "user_pool_client_ids" {
+  description = "IDs dos Clients, pareados por posição com user_pool_ids"
+  value       = aws_cognito_user_pool_client.lanchonete_auth_client[*].id
+}
+
+output "user_pool_arns" {
+  description = "ARNs de todos os Cognito User Pools (usados pelo authorizer do API Gateway)"
+  value       = aws_cognito_user_pool.lanchonete_auth[*].arn
 }
 
 output "user_pool_domain" {
-  description = "Domínio do Cognito User Pool"
-  value       = aws_cognito_user_pool_domain.lanchonete_auth_domain.domain
+  description = "Domínio do primeiro Cognito User Pool"
+  value       = aws_cognito_user_pool_domain.lanchonete_auth_domain[0].domain
 }
 
 output "user_pool_endpoint" {
-  description = "Endpoint do Cognito User Pool"
-  value       = aws_cognito_user_pool.lanchonete_auth.endpoint
-}
\ No newline at end of file
+  description = "Endpoint do primeiro Cognito User Pool"
+  value       = aws_cognito_user_pool.lanchonete_auth[0].endpoint
+}
@@ -10,6 +10,17 @@ variable "regiao" {
   default     = "us-east-1"
 }
 
+variable "quantidade_user_pools" {
+  description = "Quantidade de Cognito User Pools entre os quais os usuários são distribuídos"
+  type        = number
+  default     = 1
+
+  validation {
+    condition     = var.quantidade_user_pools >= 1
+    error_message = "Deve existir pelo menos um user pool."
+  }
+}
+
 locals {
   common_tags = {
     Projeto = var.nome_projeto
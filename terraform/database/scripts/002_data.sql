@@ -77,7 +77,7 @@ ON DUPLICATE KEY UPDATE
 
 -- Cliente para testes
 INSERT INTO cliente (nome, cpf, email)
-VALUES ('João da Silva', '55555555555', 'joao.silva@lanchonete.com') AS novo
+VALUES ('João da Silva', '52998224725', 'joao.silva@lanchonete.com') AS novo
 ON DUPLICATE KEY UPDATE
     nome = novo.nome,
     email = novo.email;
\ No newline at end of file
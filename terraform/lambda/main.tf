@@ -35,6 +35,20 @@ data "terraform_remote_state" "auth" {
   }
 }
 
+# Chave do HMAC que anonimiza o CPF nos eventos de login
+resource "random_password" "auth_events_hash_key" {
+  length  = 32
+  special = false
+}
+
+# Fila dos eventos de login consumida pela análise de logins
+resource "aws_sqs_queue" "auth_events" {
+  name                      = "${var.nome_projeto}-auth-events"
+  message_retention_seconds = 345600 # 4 dias
+
+  tags = local.common_tags
+}
+
 # Lambda Function usando ZIP já pronto
 resource "aws_lambda_function" "auth_lambda" {
   filename         = "${path.module}/lambda-auth.zip"
@@ -48,9 +62,20 @@ resource "aws_lambda_function" "auth_lambda" {
   # Variáveis de ambiente vindas do remote state e variáveis
   environment {
     variables = {
-      USER_POOL_ID         = data.terraform_remote_state.auth.outputs.user_pool_id
-      CLIENT_ID            = data.terraform_remote_state.auth.outputs.user_pool_client_id
-      CLIENTES_SERVICE_URL = var.clientes_service_url
+      USER_POOL_ID                 = data.terraform_remote_state.auth.outputs.user_pool_id
+      CLIENT_ID                    = data.terraform_remote_state.auth.outputs.user_pool_client_id
+      # Pares pool/client separados por vírgula; têm precedência sobre USER_POOL_ID/CLIENT_ID
+      USER_POOL_IDS                = join(",", data.terraform_remote_state.auth.outputs.user_pool_ids)
+      CLIENT_IDS                   = join(",", data.terraform_remote_state.auth.outputs.user_pool_client_ids)
+      CLIENTES_SERVICE_URL         = var.clientes_service_url
+      # DEBUG liga o log passo a passo; eventos de login são publicados em qualquer nível
+      LOG_LEVEL                    = var.log_level
+      AUTH_EVENTS_SINK             = "sqs"
+      AUTH_EVENTS_QUEUE_URL        = aws_sqs_queue.auth_events.url
+      AUTH_EVENTS_HASH_KEY         = random_password.auth_events_hash_key.result
+      # Limites por IP, contados em cada ambiente de execução da Lambda
+      LIMITE_CPFS_INVALIDOS_POR_IP = var.limite_cpfs_invalidos_por_ip
+      LIMITE_CADASTROS_POR_IP      = var.limite_cadastros_por_ip
     }
   }
 
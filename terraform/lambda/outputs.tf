@@ -11,4 +11,9 @@ output "lambda_function_arn" {
 output "lambda_invoke_arn" {
   description = "ARN de invocação da Lambda para API Gateway"
   value       = aws_lambda_function.auth_lambda.invoke_arn
-}
\ No newline at end of file
+}
+
+output "auth_events_queue_url" {
+  description = "URL da fila SQS com os eventos de login"
+  value       = aws_sqs_queue.auth_events.url
+}
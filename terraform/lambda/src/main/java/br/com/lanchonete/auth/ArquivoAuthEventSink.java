@@ -0,0 +1,36 @@
+package br.com.lanchonete.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Acrescenta os eventos, um JSON por linha, a um arquivo local. Usado em testes e
+ * execuções locais.
+ */
+public class ArquivoAuthEventSink implements AuthEventSink {
+
+    private final Path arquivo;
+    private final ObjectMapper objectMapper;
+
+    public ArquivoAuthEventSink(Path arquivo, ObjectMapper objectMapper) {
+        this.arquivo = arquivo;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void enviar(List<AuthEvent> lote) throws Exception {
+        try (BufferedWriter writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (AuthEvent evento : lote) {
+                writer.write(objectMapper.writeValueAsString(evento));
+                writer.newLine();
+            }
+        }
+    }
+}
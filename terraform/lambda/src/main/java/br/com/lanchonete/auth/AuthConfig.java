@@ -1,33 +1,138 @@
 package br.com.lanchonete.auth;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 public class AuthConfig {
-    private final String userPoolId;
-    private final String clientId;
+    private final List<CognitoPool> pools;
     private final String clientesServiceUrl;
+    private final boolean logDetalhado;
+    private final String chaveHashCpf;
+    private final LimitesAbuso limites;
 
     public AuthConfig(String userPoolId, String clientId, String clientesServiceUrl) {
-        this.userPoolId = userPoolId;
-        this.clientId = clientId;
+        this(List.of(new CognitoPool(userPoolId, clientId)), clientesServiceUrl);
+    }
+
+    public AuthConfig(List<CognitoPool> pools, String clientesServiceUrl) {
+        this(pools, clientesServiceUrl, false, null);
+    }
+
+    public AuthConfig(List<CognitoPool> pools, String clientesServiceUrl, boolean logDetalhado, String chaveHashCpf) {
+        this(pools, clientesServiceUrl, logDetalhado, chaveHashCpf, LimitesAbuso.padrao());
+    }
+
+    public AuthConfig(List<CognitoPool> pools, String clientesServiceUrl, boolean logDetalhado, String chaveHashCpf,
+                      LimitesAbuso limites) {
+        if (pools.isEmpty()) {
+            throw new IllegalArgumentException("Pelo menos um user pool deve ser configurado");
+        }
+        this.pools = List.copyOf(pools);
         this.clientesServiceUrl = clientesServiceUrl;
+        this.logDetalhado = logDetalhado;
+        this.chaveHashCpf = chaveHashCpf;
+        this.limites = limites;
     }
 
+    /**
+     * USER_POOL_IDS e CLIENT_IDS são listas separadas por vírgula, pareadas por posição.
+     * Sem elas, cai para o par único USER_POOL_ID/CLIENT_ID.
+     * O log passo a passo só é emitido com LOG_LEVEL=DEBUG.
+     * Sem AUTH_EVENTS_HASH_KEY os eventos saem sem cpfHash: analytics mal configurado
+     * não pode derrubar o login.
+     * LIMITE_CPFS_INVALIDOS_POR_IP, JANELA_CPFS_INVALIDOS_SEGUNDOS, JANELA_CPF_RECUSADO_SEGUNDOS,
+     * LIMITE_CADASTROS_POR_IP e JANELA_CADASTROS_SEGUNDOS ajustam os {@link LimitesAbuso};
+     * ausentes ou inválidas, valem os padrões.
+     */
     public static AuthConfig fromEnvironment() {
+        return fromEnvironment(System.getenv());
+    }
+
+    static AuthConfig fromEnvironment(Map<String, String> env) {
+        String userPoolIds = env.get("USER_POOL_IDS");
+        List<CognitoPool> pools = userPoolIds == null || userPoolIds.isBlank()
+            ? List.of(new CognitoPool(env.get("USER_POOL_ID"), env.get("CLIENT_ID")))
+            : parsePools(userPoolIds, env.get("CLIENT_IDS"));
+
+        String chaveHashCpf = env.get("AUTH_EVENTS_HASH_KEY");
+        if (chaveHashCpf == null || chaveHashCpf.isBlank()) {
+            System.err.println("AVISO: AUTH_EVENTS_HASH_KEY não configurada, eventos de autenticação sairão sem cpfHash");
+            chaveHashCpf = null;
+        }
+
         return new AuthConfig(
-            System.getenv("USER_POOL_ID"),
-            System.getenv("CLIENT_ID"),
-            System.getenv("CLIENTES_SERVICE_URL")
+            pools,
+            env.get("CLIENTES_SERVICE_URL"),
+            "DEBUG".equalsIgnoreCase(env.get("LOG_LEVEL")),
+            chaveHashCpf,
+            lerLimites(env)
         );
     }
 
-    public String getUserPoolId() {
-        return userPoolId;
+    static LimitesAbuso lerLimites(Map<String, String> env) {
+        LimitesAbuso padrao = LimitesAbuso.padrao();
+        return new LimitesAbuso(
+            (int) lerNumero(env, "LIMITE_CPFS_INVALIDOS_POR_IP", padrao.getCpfsInvalidosPorIp()),
+            lerNumero(env, "JANELA_CPFS_INVALIDOS_SEGUNDOS", padrao.getJanelaCpfsInvalidosMs() / 1000) * 1000,
+            lerNumero(env, "JANELA_CPF_RECUSADO_SEGUNDOS", padrao.getJanelaCpfRecusadoMs() / 1000) * 1000,
+            (int) lerNumero(env, "LIMITE_CADASTROS_POR_IP", padrao.getCadastrosPorIp()),
+            lerNumero(env, "JANELA_CADASTROS_SEGUNDOS", padrao.getJanelaCadastrosMs() / 1000) * 1000
+        );
     }
 
-    public String getClientId() {
-        return clientId;
+    private static long lerNumero(Map<String, String> env, String nome, long padrao) {
+        String valor = env.get(nome);
+        if (valor == null || valor.isBlank()) {
+            return padrao;
+        }
+        try {
+            long numero = Long.parseLong(valor.trim());
+            if (numero > 0 && numero <= Integer.MAX_VALUE) {
+                return numero;
+            }
+        } catch (NumberFormatException e) {
+            // cai no aviso abaixo
+        }
+        System.err.println("AVISO: " + nome + " inválida (" + valor + "), usando " + padrao);
+        return padrao;
+    }
+
+    static List<CognitoPool> parsePools(String userPoolIds, String clientIds) {
+        String[] poolIds = userPoolIds.split(",");
+        String[] clients = clientIds == null ? new String[0] : clientIds.split(",");
+        if (poolIds.length != clients.length) {
+            throw new IllegalArgumentException("USER_POOL_IDS e CLIENT_IDS devem ter o mesmo número de itens");
+        }
+
+        List<CognitoPool> pools = new ArrayList<>();
+        for (int i = 0; i < poolIds.length; i++) {
+            pools.add(new CognitoPool(poolIds[i].trim(), clients[i].trim()));
+        }
+        return pools;
+    }
+
+    public List<CognitoPool> getPools() {
+        return pools;
     }
 
     public String getClientesServiceUrl() {
         return clientesServiceUrl;
     }
-}
\ No newline at end of file
+
+    public boolean isLogDetalhado() {
+        return logDetalhado;
+    }
+
+    public String getChaveHashCpf() {
+        return chaveHashCpf;
+    }
+
+    public LimitesAbuso getLimites() {
+        return limites;
+    }
+
+    public boolean temChaveHashCpf() {
+        return chaveHashCpf != null && !chaveHashCpf.isEmpty();
+    }
+}
@@ -0,0 +1,102 @@
+package br.com.lanchonete.auth;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Evento estruturado de uma tentativa de login, publicado pelo {@link AuthEventPublisher}.
+ * O CPF nunca é registrado em claro, apenas seu HMAC-SHA256; sem chave configurada o
+ * campo fica vazio.
+ */
+public class AuthEvent {
+
+    @JsonProperty("timestamp")
+    private final long timestamp;
+
+    @JsonProperty("fluxo")
+    private final String fluxo;
+
+    @JsonProperty("resultado")
+    private final String resultado;
+
+    @JsonProperty("status")
+    private final int status;
+
+    @JsonProperty("latenciaMs")
+    private final long latenciaMs;
+
+    @JsonProperty("chamadas")
+    private final List<String> chamadas;
+
+    @JsonProperty("cpfHash")
+    private final String cpfHash;
+
+    @JsonProperty("userPoolId")
+    private final String userPoolId;
+
+    public AuthEvent(long timestamp, String fluxo, String resultado, int status, long latenciaMs,
+                     List<String> chamadas, String cpfHash, String userPoolId) {
+        this.timestamp = timestamp;
+        this.fluxo = fluxo;
+        this.resultado = resultado;
+        this.status = status;
+        this.latenciaMs = latenciaMs;
+        this.chamadas = List.copyOf(chamadas);
+        this.cpfHash = cpfHash;
+        this.userPoolId = userPoolId;
+    }
+
+    /**
+     * HMAC-SHA256 do CPF. Exige chave: há só ~10^9 CPFs válidos, então um hash sem chave
+     * seria revertido por força bruta em segundos.
+     */
+    public static String hashCpf(String cpf, String chave) {
+        if (chave == null || chave.isEmpty()) {
+            throw new IllegalArgumentException("Chave do hash de CPF não configurada");
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(chave.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(cpf.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Falha ao calcular hash do CPF", e);
+        }
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getFluxo() {
+        return fluxo;
+    }
+
+    public String getResultado() {
+        return resultado;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getLatenciaMs() {
+        return latenciaMs;
+    }
+
+    public List<String> getChamadas() {
+        return chamadas;
+    }
+
+    public String getCpfHash() {
+        return cpfHash;
+    }
+
+    public String getUserPoolId() {
+        return userPoolId;
+    }
+}
@@ -0,0 +1,233 @@
+package br.com.lanchonete.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsClient;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica {@link AuthEvent}s de forma assíncrona e em lotes.
+ *
+ * {@link #publicar} só enfileira o evento num buffer circular de capacidade fixa e nunca
+ * bloqueia a resposta: com o buffer cheio o evento é descartado e contado em
+ * {@link #getDescartados()}. Um lote que o sink recusa volta uma vez ao buffer, se houver
+ * espaço; o que falha de novo, ou não cabe, é contado em {@link #getPerdidos()}. Os dois
+ * contadores vão para o log a cada {@code INTERVALO_RELATORIO_MS} em que mudaram, e no close. Uma thread daemon acorda assim que um evento chega e entrega
+ * ao sink tudo o que já estiver no buffer, até {@code tamanhoLote} eventos, sem esperar o
+ * lote encher: os lotes crescem sozinhos quando o sink está ocupado. {@code intervaloMs}
+ * só define de quanto em quanto tempo a thread ociosa confere se o publisher foi fechado.
+ *
+ * Na Lambda o ambiente é congelado logo após a resposta. O envio começa enquanto o runtime
+ * ainda devolve a resposta, e um evento que não tenha saído antes do congelamento é
+ * entregue quando a próxima invocação descongela o ambiente. Sem extensões registradas a
+ * Lambda não envia SIGTERM ao runtime, então o shutdown hook só vale para execuções locais.
+ */
+public class AuthEventPublisher implements AutoCloseable {
+
+    private static final int CAPACIDADE_PADRAO = 1024;
+    private static final int TAMANHO_LOTE_PADRAO = 100;
+    private static final long INTERVALO_PADRAO_MS = 1000;
+    private static final long INTERVALO_RELATORIO_MS = 60_000;
+    private static final String FILA_PADRAO_ENV = "AUTH_EVENTS_QUEUE_URL";
+    // Marcador enfileirado por close() para acordar a thread ociosa sem interrompê-la
+    private static final AuthEvent FIM = new AuthEvent(0, null, null, 0, 0, List.of(), null, null);
+
+    private final ArrayBlockingQueue<AuthEvent> buffer;
+    private final AuthEventSink sink;
+    private final int tamanhoLote;
+    private final long intervaloMs;
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong perdidos = new AtomicLong();
+    private final AtomicLong lotesComFalha = new AtomicLong();
+    // Eventos que já voltaram ao buffer depois de uma falha do sink; não voltam de novo
+    private final Set<AuthEvent> reenfileirados = ConcurrentHashMap.newKeySet();
+    // Lock próprio do relatório: close() segura o monitor do publisher enquanto espera a thread
+    private final Object relatorio = new Object();
+    private long ultimoRelatorioMs = System.currentTimeMillis();
+    private long descartadosRelatados;
+    private long perdidosRelatados;
+    private final Thread worker;
+    private volatile boolean ativo = true;
+
+    public AuthEventPublisher(AuthEventSink sink, int capacidade, int tamanhoLote, long intervaloMs) {
+        this.buffer = new ArrayBlockingQueue<>(capacidade);
+        this.sink = sink;
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloMs = intervaloMs;
+        this.worker = new Thread(this::executar, "auth-event-publisher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    private AuthEventPublisher() {
+        this.buffer = null;
+        this.sink = null;
+        this.tamanhoLote = 0;
+        this.intervaloMs = 0;
+        this.worker = null;
+        this.ativo = false;
+    }
+
+    /**
+     * Publisher que ignora todos os eventos, sem buffer nem thread.
+     */
+    public static AuthEventPublisher desativado() {
+        return new AuthEventPublisher();
+    }
+
+    /**
+     * AUTH_EVENTS_SINK escolhe o destino: "sqs" (fila em AUTH_EVENTS_QUEUE_URL), "stdout"
+     * (padrão), "arquivo" (caminho em AUTH_EVENTS_ARQUIVO) ou "desativado". Um destino mal
+     * configurado cai para stdout com um aviso, em vez de impedir a Lambda de subir.
+     */
+    public static AuthEventPublisher fromEnvironment(ObjectMapper objectMapper) {
+        AuthEventSink sink = criarSink(System.getenv(), objectMapper);
+        if (sink == null) {
+            return desativado();
+        }
+
+        AuthEventPublisher publisher = new AuthEventPublisher(sink, CAPACIDADE_PADRAO, TAMANHO_LOTE_PADRAO, INTERVALO_PADRAO_MS);
+        Runtime.getRuntime().addShutdownHook(new Thread(publisher::close));
+        return publisher;
+    }
+
+    static AuthEventSink criarSink(Map<String, String> env, ObjectMapper objectMapper) {
+        String tipo = env.getOrDefault("AUTH_EVENTS_SINK", "stdout");
+        try {
+            switch (tipo) {
+                case "desativado":
+                    return null;
+                case "sqs":
+                    return new SqsAuthEventSink(
+                            SqsClient.builder().region(Region.US_EAST_1).build(),
+                            env.get(FILA_PADRAO_ENV),
+                            objectMapper);
+                case "arquivo":
+                    return new ArquivoAuthEventSink(Path.of(env.get("AUTH_EVENTS_ARQUIVO")), objectMapper);
+                default:
+                    return new StdoutAuthEventSink(objectMapper);
+            }
+        } catch (Exception e) {
+            System.err.println("AVISO: sink de eventos \"" + tipo + "\" mal configurado, usando stdout: " + e.getMessage());
+            return new StdoutAuthEventSink(objectMapper);
+        }
+    }
+
+    public void publicar(AuthEvent evento) {
+        if (!ativo) {
+            return;
+        }
+        if (!buffer.offer(evento)) {
+            descartados.incrementAndGet();
+        }
+    }
+
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    public long getPerdidos() {
+        return perdidos.get();
+    }
+
+    public long getLotesComFalha() {
+        return lotesComFalha.get();
+    }
+
+    private void executar() {
+        List<AuthEvent> lote = new ArrayList<>(tamanhoLote);
+        while (ativo) {
+            try {
+                AuthEvent primeiro = buffer.poll(intervaloMs, TimeUnit.MILLISECONDS);
+                if (primeiro != null && primeiro != FIM) {
+                    // Envia o que já estiver no buffer, sem esperar o lote encher
+                    lote.add(primeiro);
+                    buffer.drainTo(lote, tamanhoLote - 1);
+                    enviar(lote);
+                }
+                relatarPerdas(false);
+            } catch (InterruptedException e) {
+                enviar(lote);
+                break;
+            }
+        }
+    }
+
+    private void enviar(List<AuthEvent> lote) {
+        lote.removeIf(evento -> evento == FIM);
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            sink.enviar(lote);
+            lote.forEach(reenfileirados::remove);
+        } catch (Exception e) {
+            lotesComFalha.incrementAndGet();
+            int devolvidos = 0;
+            for (AuthEvent evento : lote) {
+                if (reenfileirados.remove(evento) || !buffer.offer(evento)) {
+                    perdidos.incrementAndGet();
+                } else {
+                    reenfileirados.add(evento);
+                    devolvidos++;
+                }
+            }
+            System.err.println("Erro ao publicar lote de " + lote.size() + " eventos de autenticação ("
+                    + devolvidos + " devolvidos ao buffer, " + (lote.size() - devolvidos) + " perdidos): "
+                    + e.getMessage());
+        } finally {
+            lote.clear();
+        }
+    }
+
+    private void relatarPerdas(boolean forcar) {
+        synchronized (relatorio) {
+            long agora = System.currentTimeMillis();
+            if (!forcar && agora - ultimoRelatorioMs < INTERVALO_RELATORIO_MS) {
+                return;
+            }
+            ultimoRelatorioMs = agora;
+            long descartadosAtual = descartados.get();
+            long perdidosAtual = perdidos.get();
+            if (descartadosAtual == descartadosRelatados && perdidosAtual == perdidosRelatados) {
+                return;
+            }
+            System.err.println("Eventos de autenticação: " + descartadosAtual + " descartados com buffer cheio, "
+                    + perdidosAtual + " perdidos após falha do sink, " + lotesComFalha.get() + " lotes com falha");
+            descartadosRelatados = descartadosAtual;
+            perdidosRelatados = perdidosAtual;
+        }
+    }
+
+    /**
+     * Para a thread de envio, aguardando o lote em andamento, e entrega o que restou no buffer.
+     */
+    @Override
+    public synchronized void close() {
+        if (!ativo) {
+            return;
+        }
+        ativo = false;
+        buffer.offer(FIM);
+        try {
+            worker.join(intervaloMs * 2 + TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<AuthEvent> restantes = new ArrayList<>(tamanhoLote);
+        while (buffer.drainTo(restantes, tamanhoLote) > 0) {
+            enviar(restantes);
+        }
+        relatarPerdas(true);
+    }
+}
@@ -0,0 +1,12 @@
+package br.com.lanchonete.auth;
+
+import java.util.List;
+
+/**
+ * Destino dos lotes de {@link AuthEvent}. Implementações para filas ou streams
+ * (como {@link SqsAuthEventSink}) só precisam entregar o lote recebido.
+ */
+public interface AuthEventSink {
+
+    void enviar(List<AuthEvent> lote) throws Exception;
+}
@@ -16,13 +16,32 @@ import java.net.http.HttpResponse;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
+    private static final String SENHA_PADRAO = "Lanchonete@2024";
+
+    private static final int CAPACIDADE_CACHE_REJEICAO = 10_000;
+
+    private enum ResultadoCadastro { CRIADO, EXISTENTE, RECUSADO, FALHA }
+
+    private enum ResultadoBusca { ENCONTRADO, AUSENTE, FALHA }
+
     private final CognitoIdentityProviderClient cognitoClient;
     private final ObjectMapper objectMapper;
     private final AuthConfig config;
+    private final RoteadorPools roteadorPools;
     private final HttpClient httpClient;
+    private final AuthEventPublisher eventPublisher;
+    // Os caches vivem em cada ambiente de execução da Lambda, sem estado compartilhado:
+    // com N ambientes ativos, o limite efetivo por IP chega a N vezes o configurado.
+    // IP que envia muitos CPFs inválidos fica bloqueado pelo restante da janela
+    private final CacheRejeicao rejeicoesPorIp;
+    // CPF recusado pelo serviço de clientes não volta à rede durante a janela
+    private final CacheRejeicao rejeicoesPorCpf;
+    // IP que cadastra muitos CPFs novos (mesmo com dígitos válidos) deixa de cadastrar
+    private final CacheRejeicao cadastrosPorIp;
 
     public AuthHandler() {
         this(AuthConfig.fromEnvironment(),
@@ -30,84 +49,148 @@ public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent,
                      .region(Region.US_EAST_1)
                      .build(),
              HttpClient.newHttpClient(),
-             new ObjectMapper());
+             new ObjectMapper(),
+             AuthEventPublisher.fromEnvironment(new ObjectMapper()));
     }
 
     public AuthHandler(AuthConfig config,
                       CognitoIdentityProviderClient cognitoClient,
                       HttpClient httpClient,
                       ObjectMapper objectMapper) {
+        this(config, cognitoClient, httpClient, objectMapper, AuthEventPublisher.desativado());
+    }
+
+    public AuthHandler(AuthConfig config,
+                      CognitoIdentityProviderClient cognitoClient,
+                      HttpClient httpClient,
+                      ObjectMapper objectMapper,
+                      AuthEventPublisher eventPublisher) {
         this.config = config;
+        this.roteadorPools = new RoteadorPools(config.getPools());
         this.cognitoClient = cognitoClient;
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+
+        LimitesAbuso limites = config.getLimites();
+        this.rejeicoesPorIp = new CacheRejeicao(
+                limites.getCpfsInvalidosPorIp(), limites.getJanelaCpfsInvalidosMs(), CAPACIDADE_CACHE_REJEICAO);
+        this.rejeicoesPorCpf = new CacheRejeicao(1, limites.getJanelaCpfRecusadoMs(), CAPACIDADE_CACHE_REJEICAO);
+        this.cadastrosPorIp = new CacheRejeicao(
+                limites.getCadastrosPorIp(), limites.getJanelaCadastrosMs(), CAPACIDADE_CACHE_REJEICAO);
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
-        context.getLogger().log("Iniciando autenticação via CPF");
+        RegistroLogin registro = new RegistroLogin();
+        APIGatewayProxyResponseEvent response = processarRequisicao(input, context, registro);
+        eventPublisher.publicar(registro.concluir(response.getStatusCode()));
+        return response;
+    }
+
+    private APIGatewayProxyResponseEvent processarRequisicao(APIGatewayProxyRequestEvent input, Context context, RegistroLogin registro) {
+        logDetalhado(context, () -> "Iniciando autenticação via CPF");
 
         try {
             // Parse do body da requisição
             IdentificacaoRequest request = objectMapper.readValue(input.getBody(), IdentificacaoRequest.class);
             
-            if (request.getCpf() == null || request.getCpf().trim().isEmpty()) {
+            if (request.getCpf() == null || request.getCpf().isBlank()) {
                 // Cliente anônimo
-                return criarTokenAnonimo(context);
-            } else {
-                // Cliente identificado via CPF
-                return autenticarComCpf(request.getCpf(), context);
+                registro.fluxo("ANONIMO");
+                return criarTokenAnonimo(context, registro);
+            }
+
+            // Cliente identificado via CPF: validar antes de qualquer chamada de rede
+            registro.fluxo("IDENTIFICADO");
+            // Só o fluxo identificado é limitado: vários totens de uma loja podem sair pelo
+            // mesmo IP público, e sessões anônimas não dependem do CPF digitado
+            String ipOrigem = obterIpOrigem(input);
+            if (rejeicoesPorIp.bloqueado(ipOrigem)) {
+                return criarErroResponse(429, "Muitas requisições inválidas");
+            }
+            long cpfNumerico = NormalizadorCpf.normalizar(request.getCpf());
+            if (cpfNumerico == NormalizadorCpf.INVALIDO) {
+                rejeicoesPorIp.registrar(ipOrigem);
+                return criarErroResponse(400, "CPF inválido");
             }
 
+            String cpfLimpo = NormalizadorCpf.formatar(cpfNumerico);
+            if (rejeicoesPorCpf.bloqueado(cpfLimpo)) {
+                return criarErroResponse(400, "CPF inválido");
+            }
+            return autenticarComCpf(cpfLimpo, ipOrigem, context, registro);
+
         } catch (Exception e) {
             context.getLogger().log("Erro na autenticação: " + e.getMessage());
             return criarErroResponse(500, "Erro interno do servidor");
         }
     }
 
-    private APIGatewayProxyResponseEvent autenticarComCpf(String cpf, Context context) {
+    private APIGatewayProxyResponseEvent autenticarComCpf(String cpfLimpo, String ipOrigem, Context context, RegistroLogin registro) {
         try {
-            String cpfLimpo = limparCpf(cpf);
-            context.getLogger().log("Autenticando CPF: " + cpfLimpo);
-
-            // 1. Verificar/Criar cliente no MySQL primeiro (fonte da verdade)
-            if (!verificarClienteExiste(cpfLimpo, context)) {
-                context.getLogger().log("Cliente não existe no MySQL, criando...");
-                if (!criarClienteNoMySQL(cpfLimpo, context)) {
+            CognitoPool pool = roteadorPools.poolParaCpf(cpfLimpo);
+            if (config.temChaveHashCpf()) {
+                registro.cpfHash(AuthEvent.hashCpf(cpfLimpo, config.getChaveHashCpf()));
+            }
+            registro.pool(pool);
+            logDetalhado(context, () -> "Autenticando CPF: " + cpfLimpo + " no pool " + pool.getUserPoolId());
+
+            // IP acima do limite de cadastros novos: troca o POST por uma consulta e só
+            // recusa CPFs que ainda não são clientes. Clientes existentes seguem o fluxo
+            // normal, inclusive os que precisam de usuário num pool novo
+            if (cadastrosPorIp.bloqueado(ipOrigem)) {
+                ResultadoBusca busca = buscarClienteNoMySQL(cpfLimpo, context, registro);
+                if (busca == ResultadoBusca.AUSENTE) {
+                    return criarErroResponse(429, "Muitos cadastros a partir deste IP");
+                }
+                if (busca == ResultadoBusca.FALHA) {
+                    return criarErroResponse(500, "Erro ao consultar cliente no sistema");
+                }
+            } else {
+                // 1. Garantir cliente no MySQL (fonte da verdade) com um único POST:
+                //    201 = cliente novo, 409 = cliente já existia
+                ResultadoCadastro cadastro = cadastrarClienteNoMySQL(cpfLimpo, context, registro);
+                if (cadastro == ResultadoCadastro.RECUSADO) {
+                    rejeicoesPorCpf.registrar(cpfLimpo);
+                    return criarErroResponse(400, "CPF inválido");
+                }
+                if (cadastro == ResultadoCadastro.FALHA) {
                     context.getLogger().log("ERRO CRÍTICO: Falha ao criar cliente no MySQL");
                     return criarErroResponse(500, "Erro ao criar cliente no sistema");
                 }
-                context.getLogger().log("Cliente criado no MySQL com sucesso");
-            } else {
-                context.getLogger().log("Cliente já existe no MySQL");
+
+                // 2. Cliente novo ainda não tem usuário no Cognito: provisionar direto,
+                //    sem gastar uma tentativa de autenticação que sabemos que vai falhar
+                if (cadastro == ResultadoCadastro.CRIADO) {
+                    cadastrosPorIp.registrar(ipOrigem);
+                    if (!provisionarUsuarioCognito(pool, cpfLimpo, context, registro)) {
+                        return criarErroResponse(500, "Erro ao criar usuário de autenticação");
+                    }
+                }
             }
 
-            // 2. Tentar autenticar no Cognito
-            AdminInitiateAuthResponse authResponse = null;
+            // 3. Autenticar no Cognito
+            AdminInitiateAuthResponse authResponse;
             try {
-                authResponse = tentarAutenticarCognito(cpfLimpo, context);
-            } catch (Exception e) {
-                context.getLogger().log("Falha na autenticação, tentando criar usuário no Cognito: " + e.getMessage());
-
-                // Se falhou, criar usuário no Cognito e tentar novamente
-                if (!criarUsuarioSeNaoExistir(cpfLimpo, context)) {
+                authResponse = tentarAutenticarCognito(pool, cpfLimpo, registro);
+            } catch (UserNotFoundException e) {
+                // Cliente já existia no MySQL mas não tem usuário neste pool
+                // (cadastro antigo ou CPF realocado após adição de um pool)
+                logDetalhado(context, () -> "Usuário não encontrado no Cognito, criando: " + cpfLimpo);
+                if (!provisionarUsuarioCognito(pool, cpfLimpo, context, registro)) {
                     return criarErroResponse(500, "Erro ao criar usuário de autenticação");
                 }
-
-                try {
-                    authResponse = tentarAutenticarCognito(cpfLimpo, context);
-                } catch (Exception e2) {
-                    context.getLogger().log("ERRO CRÍTICO: Falha na autenticação mesmo após criar usuário: " + e2.getMessage());
-                    return criarErroResponse(500, "Erro na autenticação");
-                }
+                authResponse = tentarAutenticarCognito(pool, cpfLimpo, registro);
             }
 
-            // 3. Processar resposta da autenticação
+            // 4. Usuários antigos, ou cuja senha permanente não chegou a ser definida,
+            //    ainda recebem o desafio
             if (authResponse.challengeName() == ChallengeNameType.NEW_PASSWORD_REQUIRED) {
-                authResponse = processarDesafioSenha(authResponse, cpfLimpo, context);
+                authResponse = processarDesafioSenha(pool, authResponse, cpfLimpo, registro);
             }
 
-            // 4. Retornar tokens
+            // 5. Retornar tokens
             AuthenticationResultType result = authResponse.authenticationResult();
             IdentificacaoResponse response = new IdentificacaoResponse(
                     result.idToken(),
@@ -124,44 +207,20 @@ public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent,
         }
     }
 
-    private APIGatewayProxyResponseEvent criarTokenAnonimo(Context context) {
+    private APIGatewayProxyResponseEvent criarTokenAnonimo(Context context, RegistroLogin registro) {
         try {
             // Para anônimos, criar usuário temporário
             String userId = "anonimo_" + UUID.randomUUID().toString().substring(0, 8);
-            
-            criarUsuarioSeNaoExistir(userId, context);
+            CognitoPool pool = roteadorPools.poolParaAnonimo();
+            registro.pool(pool);
 
-            // Autenticar usuário anônimo
-            AdminInitiateAuthRequest authRequest = AdminInitiateAuthRequest.builder()
-                    .userPoolId(config.getUserPoolId())
-                    .clientId(config.getClientId())
-                    .authFlow(AuthFlowType.ADMIN_NO_SRP_AUTH)
-                    .authParameters(Map.of(
-                            "USERNAME", userId,
-                            "PASSWORD", "Lanchonete@2024"
-                    ))
-                    .build();
+            provisionarUsuarioCognito(pool, userId, context, registro);
 
-            AdminInitiateAuthResponse authResponse = cognitoClient.adminInitiateAuth(authRequest);
+            // Autenticar usuário anônimo
+            AdminInitiateAuthResponse authResponse = tentarAutenticarCognito(pool, userId, registro);
 
-            // Verificar se precisa definir nova senha
             if (authResponse.challengeName() == ChallengeNameType.NEW_PASSWORD_REQUIRED) {
-                // Definir senha permanente automaticamente
-                AdminRespondToAuthChallengeRequest challengeRequest = AdminRespondToAuthChallengeRequest.builder()
-                        .userPoolId(config.getUserPoolId())
-                        .clientId(config.getClientId())
-                        .challengeName(ChallengeNameType.NEW_PASSWORD_REQUIRED)
-                        .session(authResponse.session())
-                        .challengeResponses(Map.of(
-                                "USERNAME", userId,
-                                "NEW_PASSWORD", "Lanchonete@2024"
-                        ))
-                        .build();
-
-                AdminRespondToAuthChallengeResponse challengeResponse = cognitoClient.adminRespondToAuthChallenge(challengeRequest);
-                authResponse = AdminInitiateAuthResponse.builder()
-                        .authenticationResult(challengeResponse.authenticationResult())
-                        .build();
+                authResponse = processarDesafioSenha(pool, authResponse, userId, registro);
             }
 
             AuthenticationResultType result = authResponse.authenticationResult();
@@ -180,32 +239,7 @@ public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent,
         }
     }
 
-    private boolean verificarClienteExiste(String cpf, Context context) {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(config.getClientesServiceUrl() + "/clientes/cpf/" + cpf))
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200) {
-                context.getLogger().log("Cliente encontrado no MySQL: " + cpf);
-                return true;
-            } else if (response.statusCode() == 404) {
-                context.getLogger().log("Cliente não encontrado no MySQL: " + cpf);
-                return false;
-            } else {
-                context.getLogger().log("Erro ao verificar cliente no MySQL. Status: " + response.statusCode());
-                return false;
-            }
-        } catch (Exception e) {
-            context.getLogger().log("Erro ao conectar com MySQL: " + e.getMessage());
-            return false;
-        }
-    }
-
-    private boolean criarClienteNoMySQL(String cpf, Context context) {
+    private ResultadoCadastro cadastrarClienteNoMySQL(String cpf, Context context, RegistroLogin registro) {
         try {
             Map<String, String> clienteData = new HashMap<>();
             clienteData.put("cpf", cpf);
@@ -220,68 +254,127 @@ public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent,
                     .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                     .build();
 
+            registro.chamada("clientes.POST");
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200 || response.statusCode() == 201) {
-                context.getLogger().log("Cliente criado no MySQL: " + cpf);
-                return true;
+            int status = response.statusCode();
+
+            if (status == 200 || status == 201) {
+                logDetalhado(context, () -> "Cliente criado no MySQL: " + cpf);
+                return ResultadoCadastro.CRIADO;
+            } else if (status == 409) {
+                logDetalhado(context, () -> "Cliente já existe no MySQL: " + cpf);
+                return ResultadoCadastro.EXISTENTE;
+            } else if (status == 400) {
+                context.getLogger().log("CPF recusado pelo serviço de clientes: " + response.body());
+                return ResultadoCadastro.RECUSADO;
             } else {
-                context.getLogger().log("Erro ao criar cliente no MySQL. Status: " + response.statusCode() + ", Body: " + response.body());
-                return false;
+                context.getLogger().log("Erro ao criar cliente no MySQL. Status: " + status + ", Body: " + response.body());
+                return ResultadoCadastro.FALHA;
             }
         } catch (Exception e) {
             context.getLogger().log("Erro ao criar cliente no MySQL: " + e.getMessage());
-            return false;
+            return ResultadoCadastro.FALHA;
+        }
+    }
+
+    private ResultadoBusca buscarClienteNoMySQL(String cpf, Context context, RegistroLogin registro) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(config.getClientesServiceUrl() + "/clientes/cpf/" + cpf))
+                    .GET()
+                    .build();
+
+            registro.chamada("clientes.GET");
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+
+            if (status == 200) {
+                logDetalhado(context, () -> "Cliente encontrado no MySQL: " + cpf);
+                return ResultadoBusca.ENCONTRADO;
+            } else if (status == 404) {
+                logDetalhado(context, () -> "Cliente não encontrado no MySQL: " + cpf);
+                return ResultadoBusca.AUSENTE;
+            } else {
+                context.getLogger().log("Erro ao verificar cliente no MySQL. Status: " + status);
+                return ResultadoBusca.FALHA;
+            }
+        } catch (Exception e) {
+            context.getLogger().log("Erro ao verificar cliente no MySQL: " + e.getMessage());
+            return ResultadoBusca.FALHA;
         }
     }
 
-    private AdminInitiateAuthResponse tentarAutenticarCognito(String cpf, Context context) throws Exception {
+    private AdminInitiateAuthResponse tentarAutenticarCognito(CognitoPool pool, String username, RegistroLogin registro) {
         AdminInitiateAuthRequest authRequest = AdminInitiateAuthRequest.builder()
-                .userPoolId(config.getUserPoolId())
-                .clientId(config.getClientId())
+                .userPoolId(pool.getUserPoolId())
+                .clientId(pool.getClientId())
                 .authFlow(AuthFlowType.ADMIN_NO_SRP_AUTH)
                 .authParameters(Map.of(
-                        "USERNAME", cpf,
-                        "PASSWORD", "Lanchonete@2024"
+                        "USERNAME", username,
+                        "PASSWORD", SENHA_PADRAO
                 ))
                 .build();
 
+        registro.chamada("cognito.adminInitiateAuth");
         return cognitoClient.adminInitiateAuth(authRequest);
     }
 
-    private AdminInitiateAuthResponse processarDesafioSenha(AdminInitiateAuthResponse authResponse, String cpf, Context context) throws Exception {
+    private AdminInitiateAuthResponse processarDesafioSenha(CognitoPool pool, AdminInitiateAuthResponse authResponse, String username, RegistroLogin registro) {
         AdminRespondToAuthChallengeRequest challengeRequest = AdminRespondToAuthChallengeRequest.builder()
-                .userPoolId(config.getUserPoolId())
-                .clientId(config.getClientId())
+                .userPoolId(pool.getUserPoolId())
+                .clientId(pool.getClientId())
                 .challengeName(ChallengeNameType.NEW_PASSWORD_REQUIRED)
                 .session(authResponse.session())
                 .challengeResponses(Map.of(
-                        "USERNAME", cpf,
-                        "NEW_PASSWORD", "Lanchonete@2024"
+                        "USERNAME", username,
+                        "NEW_PASSWORD", SENHA_PADRAO
                 ))
                 .build();
 
+        registro.chamada("cognito.adminRespondToAuthChallenge");
         AdminRespondToAuthChallengeResponse challengeResponse = cognitoClient.adminRespondToAuthChallenge(challengeRequest);
         return AdminInitiateAuthResponse.builder()
                 .authenticationResult(challengeResponse.authenticationResult())
                 .build();
     }
 
-    private boolean criarUsuarioSeNaoExistir(String username, Context context) {
+    /**
+     * Cria o usuário no Cognito já com senha permanente, para que a primeira
+     * autenticação devolva tokens direto, sem o desafio NEW_PASSWORD_REQUIRED.
+     * A senha temporária conhecida garante que, se a definição da senha permanente
+     * falhar, o mesmo login ainda recupere o usuário pelo desafio: essa falha não
+     * impede a autenticação, só a criação do usuário impede.
+     */
+    private boolean provisionarUsuarioCognito(CognitoPool pool, String username, Context context, RegistroLogin registro) {
         try {
             AdminCreateUserRequest createRequest = AdminCreateUserRequest.builder()
-                    .userPoolId(config.getUserPoolId())
+                    .userPoolId(pool.getUserPoolId())
                     .username(username)
-                    .temporaryPassword("Lanchonete@2024")
+                    .temporaryPassword(SENHA_PADRAO)
                     .messageAction(MessageActionType.SUPPRESS) // Não enviar email
                     .build();
 
+            registro.chamada("cognito.adminCreateUser");
             cognitoClient.adminCreateUser(createRequest);
-            context.getLogger().log("Usuário criado no Cognito: " + username);
+
+            AdminSetUserPasswordRequest senhaRequest = AdminSetUserPasswordRequest.builder()
+                    .userPoolId(pool.getUserPoolId())
+                    .username(username)
+                    .password(SENHA_PADRAO)
+                    .permanent(true)
+                    .build();
+
+            registro.chamada("cognito.adminSetUserPassword");
+            try {
+                cognitoClient.adminSetUserPassword(senhaRequest);
+            } catch (Exception e) {
+                context.getLogger().log("Erro ao definir senha permanente, seguindo pelo desafio: " + e.getMessage());
+            }
+            logDetalhado(context, () -> "Usuário criado no Cognito: " + username);
             return true;
 
         } catch (UsernameExistsException e) {
-            context.getLogger().log("Usuário já existe no Cognito: " + username);
+            logDetalhado(context, () -> "Usuário já existe no Cognito: " + username);
             return true;
         } catch (Exception e) {
             context.getLogger().log("Erro ao criar usuário no Cognito: " + e.getMessage());
@@ -289,8 +382,18 @@ public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent,
         }
     }
 
-    private String limparCpf(String cpf) {
-        return cpf.replaceAll("[^0-9]", "");
+    // Log passo a passo, só emitido com LOG_LEVEL=DEBUG; erros continuam sempre registrados
+    private void logDetalhado(Context context, Supplier<String> mensagem) {
+        if (config.isLogDetalhado()) {
+            context.getLogger().log(mensagem.get());
+        }
+    }
+
+    private String obterIpOrigem(APIGatewayProxyRequestEvent input) {
+        if (input.getRequestContext() == null || input.getRequestContext().getIdentity() == null) {
+            return null;
+        }
+        return input.getRequestContext().getIdentity().getSourceIp();
     }
 
     private APIGatewayProxyResponseEvent criarSucessoResponse(Object body) {
@@ -0,0 +1,76 @@
+package br.com.lanchonete.auth;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Conta ocorrências por chave (IP de origem, CPF) numa janela de tempo, como CPFs
+ * inválidos ou cadastros novos, e bloqueia a chave pelo restante da janela quando o
+ * limite é atingido. O número de chaves é limitado:
+ * ao encher, a menos usada recentemente é descartada.
+ */
+public class CacheRejeicao {
+
+    private final int limite;
+    private final long janelaMs;
+    private final LongSupplier relogio;
+    private final Map<String, Contagem> ocorrencias;
+
+    public CacheRejeicao(int limite, long janelaMs, int capacidade) {
+        this(limite, janelaMs, capacidade, System::currentTimeMillis);
+    }
+
+    public CacheRejeicao(int limite, long janelaMs, int capacidade, LongSupplier relogio) {
+        this.limite = limite;
+        this.janelaMs = janelaMs;
+        this.relogio = relogio;
+        this.ocorrencias = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Contagem> eldest) {
+                return size() > capacidade;
+            }
+        };
+    }
+
+    public synchronized boolean bloqueado(String chave) {
+        if (chave == null) {
+            return false;
+        }
+        Contagem registro = ocorrencias.get(chave);
+        if (registro == null) {
+            return false;
+        }
+        if (relogio.getAsLong() - registro.inicioJanela >= janelaMs) {
+            ocorrencias.remove(chave);
+            return false;
+        }
+        return registro.quantidade >= limite;
+    }
+
+    public synchronized void registrar(String chave) {
+        if (chave == null) {
+            return;
+        }
+        long agora = relogio.getAsLong();
+        Contagem registro = ocorrencias.get(chave);
+        if (registro == null || agora - registro.inicioJanela >= janelaMs) {
+            ocorrencias.put(chave, new Contagem(agora));
+        } else {
+            registro.quantidade++;
+        }
+    }
+
+    public synchronized int tamanho() {
+        return ocorrencias.size();
+    }
+
+    private static final class Contagem {
+        private final long inicioJanela;
+        private int quantidade = 1;
+
+        private Contagem(long inicioJanela) {
+            this.inicioJanela = inicioJanela;
+        }
+    }
+}
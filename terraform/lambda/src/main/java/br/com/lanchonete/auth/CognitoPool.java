@@ -0,0 +1,19 @@
+package br.com.lanchonete.auth;
+
+public class CognitoPool {
+    private final String userPoolId;
+    private final String clientId;
+
+    public CognitoPool(String userPoolId, String clientId) {
+        this.userPoolId = userPoolId;
+        this.clientId = clientId;
+    }
+
+    public String getUserPoolId() {
+        return userPoolId;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+}
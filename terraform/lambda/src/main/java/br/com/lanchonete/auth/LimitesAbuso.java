@@ -0,0 +1,52 @@
+package br.com.lanchonete.auth;
+
+/**
+ * Limites contra tráfego abusivo no fluxo identificado. Os padrões valem quando as
+ * variáveis de ambiente correspondentes não estão definidas (ver
+ * {@link AuthConfig#fromEnvironment()}).
+ */
+public class LimitesAbuso {
+
+    private final int cpfsInvalidosPorIp;
+    private final long janelaCpfsInvalidosMs;
+    private final long janelaCpfRecusadoMs;
+    private final int cadastrosPorIp;
+    private final long janelaCadastrosMs;
+
+    public LimitesAbuso(int cpfsInvalidosPorIp, long janelaCpfsInvalidosMs, long janelaCpfRecusadoMs,
+                        int cadastrosPorIp, long janelaCadastrosMs) {
+        this.cpfsInvalidosPorIp = cpfsInvalidosPorIp;
+        this.janelaCpfsInvalidosMs = janelaCpfsInvalidosMs;
+        this.janelaCpfRecusadoMs = janelaCpfRecusadoMs;
+        this.cadastrosPorIp = cadastrosPorIp;
+        this.janelaCadastrosMs = janelaCadastrosMs;
+    }
+
+    /**
+     * 10 CPFs inválidos por IP em 1 minuto, CPF recusado pelo serviço de clientes fora da
+     * rede por 10 minutos e 20 cadastros novos por IP em 10 minutos.
+     */
+    public static LimitesAbuso padrao() {
+        return new LimitesAbuso(10, 60_000, 600_000, 20, 600_000);
+    }
+
+    public int getCpfsInvalidosPorIp() {
+        return cpfsInvalidosPorIp;
+    }
+
+    public long getJanelaCpfsInvalidosMs() {
+        return janelaCpfsInvalidosMs;
+    }
+
+    public long getJanelaCpfRecusadoMs() {
+        return janelaCpfRecusadoMs;
+    }
+
+    public int getCadastrosPorIp() {
+        return cadastrosPorIp;
+    }
+
+    public long getJanelaCadastrosMs() {
+        return janelaCadastrosMs;
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.lanchonete.auth;
+
+/**
+ * Normaliza e valida CPFs antes de qualquer chamada de rede.
+ *
+ * Aceita apenas dígitos e os separadores usuais ('.', '-', espaços). A entrada é lida
+ * uma única vez e acumulada num long, e os dígitos verificadores são conferidos sobre
+ * esse valor, então rejeitar uma entrada inválida não aloca memória.
+ */
+public final class NormalizadorCpf {
+
+    public static final long INVALIDO = -1;
+
+    private static final int TAMANHO_CPF = 11;
+    private static final int TAMANHO_MAXIMO_ENTRADA = 20;
+    private static final long[] POTENCIAS_DE_10 = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L,
+        100_000_000L, 1_000_000_000L, 10_000_000_000L
+    };
+
+    private NormalizadorCpf() {
+    }
+
+    /**
+     * @return os 11 dígitos do CPF como número, ou {@link #INVALIDO}
+     */
+    public static long normalizar(CharSequence entrada) {
+        if (entrada == null || entrada.length() > TAMANHO_MAXIMO_ENTRADA) {
+            return INVALIDO;
+        }
+
+        long valor = 0;
+        int quantidadeDigitos = 0;
+        for (int i = 0; i < entrada.length(); i++) {
+            char c = entrada.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++quantidadeDigitos > TAMANHO_CPF) {
+                    return INVALIDO;
+                }
+                valor = valor * 10 + (c - '0');
+            } else if (c != '.' && c != '-' && c != ' ') {
+                return INVALIDO;
+            }
+        }
+
+        return quantidadeDigitos == TAMANHO_CPF && digitosVerificadoresValidos(valor) ? valor : INVALIDO;
+    }
+
+    public static String formatar(long cpf) {
+        char[] digitos = new char[TAMANHO_CPF];
+        for (int i = TAMANHO_CPF - 1; i >= 0; i--) {
+            digitos[i] = (char) ('0' + cpf % 10);
+            cpf /= 10;
+        }
+        return new String(digitos);
+    }
+
+    private static boolean digitosVerificadoresValidos(long cpf) {
+        int primeiro = digito(cpf, 0);
+        boolean todosIguais = true;
+        int soma1 = 0;
+        int soma2 = 0;
+        for (int i = 0; i < 9; i++) {
+            int d = digito(cpf, i);
+            todosIguais &= d == primeiro;
+            soma1 += d * (10 - i);
+            soma2 += d * (11 - i);
+        }
+        if (todosIguais && digito(cpf, 9) == primeiro && digito(cpf, 10) == primeiro) {
+            return false;
+        }
+
+        int dv1 = restoParaDigito(soma1);
+        if (dv1 != digito(cpf, 9)) {
+            return false;
+        }
+        return restoParaDigito(soma2 + dv1 * 2) == digito(cpf, 10);
+    }
+
+    private static int restoParaDigito(int soma) {
+        int resto = soma * 10 % 11;
+        return resto == 10 ? 0 : resto;
+    }
+
+    // Dígito na posição i (0 = mais à esquerda) de um CPF de 11 dígitos
+    private static int digito(long cpf, int posicao) {
+        return (int) (cpf / POTENCIAS_DE_10[TAMANHO_CPF - 1 - posicao] % 10);
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.lanchonete.auth;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acumula, ao longo de uma invocação, os dados que viram o {@link AuthEvent} dela.
+ */
+public class RegistroLogin {
+
+    private final long timestamp = System.currentTimeMillis();
+    private final long inicioNanos = System.nanoTime();
+    private final List<String> chamadas = new ArrayList<>(6);
+    private String fluxo = "DESCONHECIDO";
+    private String cpfHash;
+    private String userPoolId;
+
+    public void fluxo(String fluxo) {
+        this.fluxo = fluxo;
+    }
+
+    public void cpfHash(String cpfHash) {
+        this.cpfHash = cpfHash;
+    }
+
+    public void pool(CognitoPool pool) {
+        this.userPoolId = pool.getUserPoolId();
+    }
+
+    public void chamada(String chamada) {
+        chamadas.add(chamada);
+    }
+
+    public List<String> getChamadas() {
+        return chamadas;
+    }
+
+    public AuthEvent concluir(int status) {
+        long latenciaMs = (System.nanoTime() - inicioNanos) / 1_000_000;
+        return new AuthEvent(timestamp, fluxo, status == 200 ? "SUCESSO" : "FALHA", status,
+                latenciaMs, chamadas, cpfHash, userPoolId);
+    }
+}
@@ -0,0 +1,65 @@
+package br.com.lanchonete.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Distribui usuários entre os user pools do Cognito.
+ *
+ * CPFs identificados vão sempre para o mesmo pool via hashing consistente: cada pool
+ * ocupa vários pontos de um anel, derivados do próprio userPoolId. Ao adicionar um pool,
+ * apenas ~1/N dos CPFs muda de pool; esses são recriados no pool novo no próximo login
+ * (UserNotFoundException → provisionamento). Sessões anônimas não voltam a autenticar,
+ * então são espalhadas em round-robin a partir de um pool inicial aleatório.
+ */
+public class RoteadorPools {
+
+    private static final int NOS_VIRTUAIS_POR_POOL = 160;
+
+    private final List<CognitoPool> pools;
+    private final TreeMap<Long, CognitoPool> anel = new TreeMap<>();
+    private final AtomicInteger proximoAnonimo;
+
+    public RoteadorPools(List<CognitoPool> pools) {
+        this.pools = List.copyOf(pools);
+        // Cada ambiente de execução começa num pool aleatório; começar sempre do 0
+        // concentraria no primeiro pool as sessões de todo ambiente novo no scale-out
+        this.proximoAnonimo = new AtomicInteger(ThreadLocalRandom.current().nextInt(this.pools.size()));
+        for (CognitoPool pool : this.pools) {
+            for (int i = 0; i < NOS_VIRTUAIS_POR_POOL; i++) {
+                anel.put(hash(pool.getUserPoolId() + "#" + i), pool);
+            }
+        }
+    }
+
+    public CognitoPool poolParaCpf(String cpf) {
+        if (pools.size() == 1) {
+            return pools.get(0);
+        }
+        Map.Entry<Long, CognitoPool> entrada = anel.ceilingEntry(hash(cpf));
+        return entrada != null ? entrada.getValue() : anel.firstEntry().getValue();
+    }
+
+    public CognitoPool poolParaAnonimo() {
+        return pools.get(Math.floorMod(proximoAnonimo.getAndIncrement(), pools.size()));
+    }
+
+    // FNV-1a 64 bits seguido do finalizador do MurmurHash3 para espalhar bem chaves curtas e parecidas
+    static long hash(String chave) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : chave.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a5c273L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.lanchonete.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Envia os eventos para uma fila SQS, um evento JSON por mensagem, usando
+ * SendMessageBatch com até 10 mensagens por chamada (limite do SQS).
+ */
+public class SqsAuthEventSink implements AuthEventSink {
+
+    static final int MENSAGENS_POR_CHAMADA = 10;
+
+    private final SqsClient sqsClient;
+    private final String queueUrl;
+    private final ObjectMapper objectMapper;
+
+    public SqsAuthEventSink(SqsClient sqsClient, String queueUrl, ObjectMapper objectMapper) {
+        if (queueUrl == null || queueUrl.isBlank()) {
+            throw new IllegalArgumentException("URL da fila SQS de eventos não configurada");
+        }
+        this.sqsClient = sqsClient;
+        this.queueUrl = queueUrl;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void enviar(List<AuthEvent> lote) throws Exception {
+        int falhas = 0;
+        for (int inicio = 0; inicio < lote.size(); inicio += MENSAGENS_POR_CHAMADA) {
+            List<AuthEvent> parte = lote.subList(inicio, Math.min(inicio + MENSAGENS_POR_CHAMADA, lote.size()));
+
+            List<SendMessageBatchRequestEntry> entradas = new ArrayList<>(parte.size());
+            for (int i = 0; i < parte.size(); i++) {
+                entradas.add(SendMessageBatchRequestEntry.builder()
+                        .id(String.valueOf(i))
+                        .messageBody(objectMapper.writeValueAsString(parte.get(i)))
+                        .build());
+            }
+
+            SendMessageBatchResponse response = sqsClient.sendMessageBatch(SendMessageBatchRequest.builder()
+                    .queueUrl(queueUrl)
+                    .entries(entradas)
+                    .build());
+            falhas += response.failed().size();
+        }
+
+        if (falhas > 0) {
+            throw new IllegalStateException(falhas + " de " + lote.size() + " eventos recusados pelo SQS");
+        }
+    }
+}
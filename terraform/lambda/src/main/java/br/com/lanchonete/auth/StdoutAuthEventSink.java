@@ -0,0 +1,35 @@
+package br.com.lanchonete.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Escreve cada evento como uma linha JSON na saída padrão, que na Lambda vai para o
+ * CloudWatch Logs e pode ser consultada com Logs Insights ou uma subscription filter.
+ */
+public class StdoutAuthEventSink implements AuthEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final PrintStream saida;
+
+    public StdoutAuthEventSink(ObjectMapper objectMapper) {
+        this(objectMapper, System.out);
+    }
+
+    public StdoutAuthEventSink(ObjectMapper objectMapper, PrintStream saida) {
+        this.objectMapper = objectMapper;
+        this.saida = saida;
+    }
+
+    @Override
+    public void enviar(List<AuthEvent> lote) throws Exception {
+        StringBuilder linhas = new StringBuilder();
+        for (AuthEvent evento : lote) {
+            linhas.append(objectMapper.writeValueAsString(evento)).append('\n');
+        }
+        saida.print(linhas);
+        saida.flush();
+    }
+}
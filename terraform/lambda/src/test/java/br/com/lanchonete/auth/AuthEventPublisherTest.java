@@ -0,0 +1,164 @@
+package br.com.lanchonete.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthEventPublisherTest {
+
+    @Test
+    @DisplayName("P1 - Deve entregar todos os eventos ao sink em lotes de no máximo tamanhoLote")
+    public void p1() {
+        List<Integer> tamanhosLotes = new CopyOnWriteArrayList<>();
+        AuthEventPublisher publisher = new AuthEventPublisher(lote -> tamanhosLotes.add(lote.size()), 1024, 100, 200);
+
+        for (int i = 0; i < 250; i++) {
+            publisher.publicar(evento());
+        }
+        publisher.close();
+
+        assertEquals(250, tamanhosLotes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(tamanhosLotes.stream().allMatch(tamanho -> tamanho <= 100));
+        assertTrue(tamanhosLotes.size() >= 3);
+        assertEquals(0, publisher.getDescartados());
+    }
+
+    @Test
+    @DisplayName("P2 - Não deve bloquear quem publica quando o sink está travado; excedente do buffer é descartado e contado")
+    public void p2() throws Exception {
+        CountDownLatch liberarSink = new CountDownLatch(1);
+        CountDownLatch sinkOcupado = new CountDownLatch(1);
+        AuthEventPublisher publisher = new AuthEventPublisher(lote -> {
+            sinkOcupado.countDown();
+            liberarSink.await();
+        }, 8, 1, 10);
+
+        publisher.publicar(evento());
+        assertTrue(sinkOcupado.await(5, TimeUnit.SECONDS));
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            publisher.publicar(evento());
+        }
+        long duracaoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        assertTrue(duracaoMs < 500, "publicar bloqueou por " + duracaoMs + "ms");
+        assertEquals(92, publisher.getDescartados());
+
+        liberarSink.countDown();
+        publisher.close();
+    }
+
+    @Test
+    @DisplayName("P3 - Sink de arquivo deve gravar um JSON por linha, acumulando entre lotes")
+    public void p3(@TempDir Path diretorio) throws Exception {
+        Path arquivo = diretorio.resolve("eventos.jsonl");
+        ArquivoAuthEventSink sink = new ArquivoAuthEventSink(arquivo, new ObjectMapper());
+
+        sink.enviar(List.of(evento(), evento()));
+        sink.enviar(List.of(evento()));
+
+        List<String> linhas = Files.readAllLines(arquivo);
+        assertEquals(3, linhas.size());
+        assertTrue(linhas.get(0).contains("\"fluxo\":\"ANONIMO\""));
+    }
+
+    @Test
+    @DisplayName("P4 - Publisher desativado deve ignorar eventos sem erro")
+    public void p4() {
+        AuthEventPublisher publisher = AuthEventPublisher.desativado();
+
+        publisher.publicar(evento());
+        publisher.close();
+
+        assertEquals(0, publisher.getDescartados());
+    }
+
+    @Test
+    @DisplayName("P5 - Deve entregar o evento assim que publicado, sem esperar o lote encher nem o publisher fechar")
+    public void p5() throws Exception {
+        CountDownLatch entregue = new CountDownLatch(1);
+        AuthEventPublisher publisher = new AuthEventPublisher(lote -> entregue.countDown(), 1024, 100, 60_000);
+
+        publisher.publicar(evento());
+
+        assertTrue(entregue.await(1, TimeUnit.SECONDS));
+        publisher.close();
+    }
+
+    @Test
+    @DisplayName("P6 - Hash do CPF deve exigir chave, sem recorrer a um digest sem chave")
+    public void p6() {
+        assertThrows(IllegalArgumentException.class, () -> AuthEvent.hashCpf("52998224725", null));
+        assertThrows(IllegalArgumentException.class, () -> AuthEvent.hashCpf("52998224725", ""));
+        assertNotEquals(AuthEvent.hashCpf("52998224725", "chave-a"), AuthEvent.hashCpf("52998224725", "chave-b"));
+    }
+
+    @Test
+    @DisplayName("P7 - Lote recusado pelo sink deve voltar uma vez ao buffer e ser entregue na tentativa seguinte")
+    public void p7() {
+        AtomicInteger tentativas = new AtomicInteger();
+        List<Integer> entregues = new CopyOnWriteArrayList<>();
+        AuthEventPublisher publisher = new AuthEventPublisher(lote -> {
+            if (tentativas.incrementAndGet() == 1) {
+                throw new IllegalStateException("SQS indisponível");
+            }
+            entregues.add(lote.size());
+        }, 1024, 100, 10);
+
+        publisher.publicar(evento());
+        publisher.close();
+
+        assertEquals(1, entregues.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(1, publisher.getLotesComFalha());
+        assertEquals(0, publisher.getPerdidos());
+    }
+
+    @Test
+    @DisplayName("P8 - Lote que falha de novo depois de devolvido deve ser contado como perdido, sem nova tentativa")
+    public void p8() {
+        AtomicInteger tentativas = new AtomicInteger();
+        AuthEventPublisher publisher = new AuthEventPublisher(lote -> {
+            tentativas.incrementAndGet();
+            throw new IllegalStateException("SQS indisponível");
+        }, 1024, 100, 10);
+
+        publisher.publicar(evento());
+        publisher.publicar(evento());
+        publisher.close();
+
+        assertEquals(2, publisher.getPerdidos());
+        assertEquals(tentativas.get(), publisher.getLotesComFalha());
+        assertTrue(tentativas.get() >= 2 && tentativas.get() <= 4, "tentativas: " + tentativas.get());
+    }
+
+    @Test
+    @DisplayName("P9 - Sink mal configurado deve cair para stdout em vez de impedir a Lambda de subir")
+    public void p9() {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertInstanceOf(StdoutAuthEventSink.class,
+                AuthEventPublisher.criarSink(Map.of("AUTH_EVENTS_SINK", "sqs"), objectMapper));
+        assertInstanceOf(StdoutAuthEventSink.class,
+                AuthEventPublisher.criarSink(Map.of("AUTH_EVENTS_SINK", "arquivo"), objectMapper));
+        assertNull(AuthEventPublisher.criarSink(Map.of("AUTH_EVENTS_SINK", "desativado"), objectMapper));
+    }
+
+    private static AuthEvent evento() {
+        return new AuthEvent(System.currentTimeMillis(), "ANONIMO", "SUCESSO", 200, 12,
+                List.of("cognito.adminCreateUser", "cognito.adminSetUserPassword", "cognito.adminInitiateAuth"),
+                null, "test-pool-id");
+    }
+}
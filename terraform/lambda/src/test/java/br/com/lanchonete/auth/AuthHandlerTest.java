@@ -4,11 +4,13 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -18,7 +20,12 @@ import software.amazon.awssdk.services.cognitoidentityprovider.model.*;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -52,7 +59,7 @@ public class AuthHandlerTest {
         objectMapper = new ObjectMapper();
         authHandler = new AuthHandler(config, cognitoClient, httpClient, objectMapper);
 
-        when(context.getLogger()).thenReturn(logger);
+        lenient().when(context.getLogger()).thenReturn(logger);
     }
 
     @Test
@@ -86,13 +93,13 @@ public class AuthHandlerTest {
     }
 
     @Test
-    @DisplayName("T2 - Deve autenticar com sucesso um cliente existente no MySQL usando CPF e retornar token JWT com dados do cliente")
+    @DisplayName("T2 - Deve autenticar com sucesso um cliente já existente no MySQL (POST retorna 409) usando CPF e retornar token JWT com dados do cliente")
     public void t2() throws Exception {
-        String cpf = "12345678900";
+        String cpf = "12345678909";
         APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
         request.setBody("{\"cpf\": \"" + cpf + "\"}");
 
-        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.statusCode()).thenReturn(409);
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(httpResponse);
 
@@ -118,6 +125,7 @@ public class AuthHandlerTest {
 
         verify(httpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
         verify(cognitoClient, times(1)).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+        verify(cognitoClient, never()).adminCreateUser(any(AdminCreateUserRequest.class));
     }
 
     @Test
@@ -129,9 +137,7 @@ public class AuthHandlerTest {
 
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(httpResponse);
-        when(httpResponse.statusCode())
-                .thenReturn(404)
-                .thenReturn(201);
+        when(httpResponse.statusCode()).thenReturn(201);
 
         AuthenticationResultType authResult = AuthenticationResultType.builder()
                 .idToken("test-token-novo-cpf")
@@ -144,7 +150,6 @@ public class AuthHandlerTest {
                 .build();
 
         when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
-                .thenThrow(new RuntimeException("User not found"))
                 .thenReturn(authResponse);
 
         when(cognitoClient.adminCreateUser(any(AdminCreateUserRequest.class)))
@@ -156,20 +161,21 @@ public class AuthHandlerTest {
         assertTrue(response.getBody().contains("\"tipo\":\"IDENTIFICADO\""));
 
         ArgumentCaptor<HttpRequest> httpRequestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
-        verify(httpClient, times(2)).send(httpRequestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        verify(httpClient, times(1)).send(httpRequestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals("POST", httpRequestCaptor.getValue().method());
 
         verify(cognitoClient, times(1)).adminCreateUser(any(AdminCreateUserRequest.class));
-        verify(cognitoClient, times(2)).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+        verify(cognitoClient, times(1)).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
     }
 
     @Test
-    @DisplayName("T4 - Deve processar corretamente o desafio NEW_PASSWORD_REQUIRED do Cognito e definir senha permanente automaticamente")
+    @DisplayName("T4 - Deve processar corretamente o desafio NEW_PASSWORD_REQUIRED de usuários antigos do Cognito e definir senha permanente automaticamente")
     public void t4() throws Exception {
-        String cpf = "11111111111";
+        String cpf = "11144477735";
         APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
         request.setBody("{\"cpf\": \"" + cpf + "\"}");
 
-        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.statusCode()).thenReturn(409);
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(httpResponse);
 
@@ -205,13 +211,11 @@ public class AuthHandlerTest {
     @Test
     @DisplayName("T5 - Deve retornar erro 500 quando falha ao criar cliente no MySQL durante processo de auto-cadastro")
     public void t5() throws Exception {
-        String cpf = "22222222222";
+        String cpf = "22233344405";
         APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
         request.setBody("{\"cpf\": \"" + cpf + "\"}");
 
-        when(httpResponse.statusCode())
-                .thenReturn(404)
-                .thenReturn(500);
+        when(httpResponse.statusCode()).thenReturn(500);
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(httpResponse);
 
@@ -220,7 +224,8 @@ public class AuthHandlerTest {
         assertEquals(500, response.getStatusCode());
         assertTrue(response.getBody().contains("\"error\""));
 
-        verify(httpClient, times(2)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verify(httpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verify(cognitoClient, never()).adminCreateUser(any(AdminCreateUserRequest.class));
         verify(cognitoClient, never()).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
     }
 
@@ -242,12 +247,12 @@ public class AuthHandlerTest {
     @Test
     @DisplayName("T7 - Deve limpar CPF formatado (com pontos e traços) antes de processar autenticação")
     public void t7() throws Exception {
-        String cpfFormatado = "123.456.789-00";
-        String cpfLimpo = "12345678900";
+        String cpfFormatado = "123.456.789-09";
+        String cpfLimpo = "12345678909";
         APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
         request.setBody("{\"cpf\": \"" + cpfFormatado + "\"}");
 
-        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.statusCode()).thenReturn(409);
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(httpResponse);
 
@@ -269,11 +274,11 @@ public class AuthHandlerTest {
         assertEquals(200, response.getStatusCode());
         assertTrue(response.getBody().contains(cpfLimpo));
 
-        ArgumentCaptor<HttpRequest> httpRequestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
-        verify(httpClient, times(1)).send(httpRequestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        verify(httpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
 
-        HttpRequest capturedRequest = httpRequestCaptor.getValue();
-        assertTrue(capturedRequest.uri().toString().contains(cpfLimpo));
+        ArgumentCaptor<AdminInitiateAuthRequest> authRequestCaptor = ArgumentCaptor.forClass(AdminInitiateAuthRequest.class);
+        verify(cognitoClient, times(1)).adminInitiateAuth(authRequestCaptor.capture());
+        assertEquals(cpfLimpo, authRequestCaptor.getValue().authParameters().get("USERNAME"));
     }
 
     @Test
@@ -305,4 +310,443 @@ public class AuthHandlerTest {
         verify(cognitoClient, times(1)).adminCreateUser(any(AdminCreateUserRequest.class));
         verify(cognitoClient, times(1)).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("T9 - Primeiro login com CPF deve fazer exatamente 4 chamadas remotas (POST clientes, criar usuário, definir senha, autenticar)")
+    public void t9() throws Exception {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"33366699957\"}");
+
+        when(httpResponse.statusCode()).thenReturn(201);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(httpResponse);
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenReturn(respostaAutenticada("test-token-primeiro-login"));
+
+        APIGatewayProxyResponseEvent response = authHandler.handleRequest(request, context);
+
+        assertEquals(200, response.getStatusCode());
+
+        ArgumentCaptor<AdminSetUserPasswordRequest> senhaCaptor = ArgumentCaptor.forClass(AdminSetUserPasswordRequest.class);
+        verify(httpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verify(cognitoClient, times(1)).adminCreateUser(any(AdminCreateUserRequest.class));
+        verify(cognitoClient, times(1)).adminSetUserPassword(senhaCaptor.capture());
+        verify(cognitoClient, times(1)).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+        verifyNoMoreInteractions(httpClient, cognitoClient);
+        assertTrue(senhaCaptor.getValue().permanent());
+    }
+
+    @Test
+    @DisplayName("T10 - Login recorrente com CPF deve fazer exatamente 2 chamadas remotas (POST clientes com 409, autenticar)")
+    public void t10() throws Exception {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"44477711107\"}");
+
+        when(httpResponse.statusCode()).thenReturn(409);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(httpResponse);
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenReturn(respostaAutenticada("test-token-recorrente"));
+
+        APIGatewayProxyResponseEvent response = authHandler.handleRequest(request, context);
+
+        assertEquals(200, response.getStatusCode());
+
+        verify(httpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verify(cognitoClient, times(1)).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+        verifyNoMoreInteractions(httpClient, cognitoClient);
+    }
+
+    @Test
+    @DisplayName("T11 - Cliente existente no MySQL sem usuário no Cognito deve fazer exatamente 5 chamadas remotas")
+    public void t11() throws Exception {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"55588822200\"}");
+
+        when(httpResponse.statusCode()).thenReturn(409);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(httpResponse);
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenThrow(UserNotFoundException.builder().message("User does not exist").build())
+                .thenReturn(respostaAutenticada("test-token-sem-cognito"));
+
+        APIGatewayProxyResponseEvent response = authHandler.handleRequest(request, context);
+
+        assertEquals(200, response.getStatusCode());
+
+        verify(httpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verify(cognitoClient, times(1)).adminCreateUser(any(AdminCreateUserRequest.class));
+        verify(cognitoClient, times(1)).adminSetUserPassword(any(AdminSetUserPasswordRequest.class));
+        verify(cognitoClient, times(2)).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+        verifyNoMoreInteractions(httpClient, cognitoClient);
+    }
+
+    @Test
+    @DisplayName("T12 - Sessão anônima deve fazer exatamente 3 chamadas remotas ao Cognito e nenhuma ao serviço de clientes")
+    public void t12() throws Exception {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": null}");
+
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenReturn(respostaAutenticada("test-token-anonimo"));
+
+        APIGatewayProxyResponseEvent response = authHandler.handleRequest(request, context);
+
+        assertEquals(200, response.getStatusCode());
+
+        verify(cognitoClient, times(1)).adminCreateUser(any(AdminCreateUserRequest.class));
+        verify(cognitoClient, times(1)).adminSetUserPassword(any(AdminSetUserPasswordRequest.class));
+        verify(cognitoClient, times(1)).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+        verifyNoMoreInteractions(httpClient, cognitoClient);
+    }
+
+    @Test
+    @DisplayName("T13 - Com vários pools, deve autenticar o CPF no pool escolhido pelo hashing consistente usando o client do mesmo pool")
+    public void t13() throws Exception {
+        String cpf = "66699933310";
+        List<CognitoPool> pools = List.of(
+                new CognitoPool("pool-a", "client-a"),
+                new CognitoPool("pool-b", "client-b"),
+                new CognitoPool("pool-c", "client-c"));
+        AuthHandler handlerComPools = new AuthHandler(
+                new AuthConfig(pools, "http://localhost:8080"), cognitoClient, httpClient, objectMapper);
+        CognitoPool esperado = new RoteadorPools(pools).poolParaCpf(cpf);
+
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"" + cpf + "\"}");
+
+        when(httpResponse.statusCode()).thenReturn(409);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(httpResponse);
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenReturn(respostaAutenticada("test-token-pool"));
+
+        handlerComPools.handleRequest(request, context);
+        handlerComPools.handleRequest(request, context);
+
+        ArgumentCaptor<AdminInitiateAuthRequest> authRequestCaptor = ArgumentCaptor.forClass(AdminInitiateAuthRequest.class);
+        verify(cognitoClient, times(2)).adminInitiateAuth(authRequestCaptor.capture());
+        for (AdminInitiateAuthRequest authRequest : authRequestCaptor.getAllValues()) {
+            assertEquals(esperado.getUserPoolId(), authRequest.userPoolId());
+            assertEquals(esperado.getClientId(), authRequest.clientId());
+        }
+    }
+
+    @Test
+    @DisplayName("T14 - Deve publicar um AuthEvent com fluxo, resultado, latência, chamadas feitas e CPF apenas em hash")
+    public void t14(@TempDir Path diretorio) throws Exception {
+        String cpf = "77711155514";
+        Path arquivo = diretorio.resolve("eventos.jsonl");
+        AuthEventPublisher publisher = new AuthEventPublisher(new ArquivoAuthEventSink(arquivo, objectMapper), 16, 10, 50);
+        AuthHandler handlerComEventos = new AuthHandler(
+                new AuthConfig(config.getPools(), "http://localhost:8080", false, "chave-teste"),
+                cognitoClient, httpClient, objectMapper, publisher);
+
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"" + cpf + "\"}");
+
+        when(httpResponse.statusCode()).thenReturn(201);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(httpResponse);
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenReturn(respostaAutenticada("test-token-evento"));
+
+        handlerComEventos.handleRequest(request, context);
+        publisher.close();
+
+        List<String> linhas = Files.readAllLines(arquivo);
+        assertEquals(1, linhas.size());
+        assertFalse(linhas.get(0).contains(cpf));
+
+        JsonNode evento = objectMapper.readTree(linhas.get(0));
+        assertEquals("IDENTIFICADO", evento.get("fluxo").asText());
+        assertEquals("SUCESSO", evento.get("resultado").asText());
+        assertEquals(200, evento.get("status").asInt());
+        assertTrue(evento.get("latenciaMs").asLong() >= 0);
+        assertEquals(AuthEvent.hashCpf(cpf, "chave-teste"), evento.get("cpfHash").asText());
+        assertEquals("test-pool-id", evento.get("userPoolId").asText());
+        assertEquals(List.of("clientes.POST", "cognito.adminCreateUser", "cognito.adminSetUserPassword", "cognito.adminInitiateAuth"),
+                objectMapper.convertValue(evento.get("chamadas"), List.class));
+    }
+
+    @Test
+    @DisplayName("T15 - Sem LOG_LEVEL=DEBUG, um login bem-sucedido não deve escrever nenhuma linha de log")
+    public void t15() throws Exception {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"88822266625\"}");
+
+        when(httpResponse.statusCode()).thenReturn(409);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(httpResponse);
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenReturn(respostaAutenticada("test-token-silencioso"));
+
+        APIGatewayProxyResponseEvent response = authHandler.handleRequest(request, context);
+
+        assertEquals(200, response.getStatusCode());
+        verifyNoInteractions(logger);
+    }
+
+    @Test
+    @DisplayName("T16 - Deve rejeitar CPF com dígito verificador inválido com erro 400 sem nenhuma chamada remota")
+    public void t16() throws Exception {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"12345678900\"}");
+
+        APIGatewayProxyResponseEvent response = authHandler.handleRequest(request, context);
+
+        assertEquals(400, response.getStatusCode());
+        assertTrue(response.getBody().contains("CPF inválido"));
+        verifyNoInteractions(httpClient, cognitoClient);
+    }
+
+    @Test
+    @DisplayName("T17 - Deve bloquear com erro 429 o IP que enviou CPFs inválidos demais, mesmo quando passa a enviar um CPF válido")
+    public void t17() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            APIGatewayProxyResponseEvent response = authHandler.handleRequest(requisicaoDoIp("203.0.113.7", "0000000000" + i), context);
+            assertEquals(400, response.getStatusCode());
+        }
+
+        APIGatewayProxyResponseEvent bloqueada = authHandler.handleRequest(requisicaoDoIp("203.0.113.7", "52998224725"), context);
+
+        assertEquals(429, bloqueada.getStatusCode());
+        verifyNoInteractions(httpClient, cognitoClient);
+    }
+
+    @Test
+    @DisplayName("T18 - CPF recusado pelo serviço de clientes (400) não deve voltar à rede nas tentativas seguintes")
+    public void t18() throws Exception {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"52998224725\"}");
+
+        when(httpResponse.statusCode()).thenReturn(400);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(httpResponse);
+
+        APIGatewayProxyResponseEvent primeira = authHandler.handleRequest(request, context);
+        APIGatewayProxyResponseEvent segunda = authHandler.handleRequest(request, context);
+
+        assertEquals(400, primeira.getStatusCode());
+        assertEquals(400, segunda.getStatusCode());
+        verify(httpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verifyNoInteractions(cognitoClient);
+    }
+
+    @Test
+    @DisplayName("T19 - Se definir a senha permanente falhar, o mesmo login deve recuperar o usuário pelo desafio NEW_PASSWORD_REQUIRED")
+    public void t19() throws Exception {
+        String cpf = "11144477735";
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"" + cpf + "\"}");
+
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(httpResponse);
+        when(httpResponse.statusCode()).thenReturn(201);
+        when(cognitoClient.adminSetUserPassword(any(AdminSetUserPasswordRequest.class)))
+                .thenThrow(TooManyRequestsException.builder().message("Rate exceeded").build());
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenReturn(AdminInitiateAuthResponse.builder()
+                        .challengeName(ChallengeNameType.NEW_PASSWORD_REQUIRED)
+                        .session("test-session")
+                        .build());
+        when(cognitoClient.adminRespondToAuthChallenge(any(AdminRespondToAuthChallengeRequest.class)))
+                .thenReturn(AdminRespondToAuthChallengeResponse.builder()
+                        .authenticationResult(respostaAutenticada("test-token-recuperado").authenticationResult())
+                        .build());
+
+        APIGatewayProxyResponseEvent response = authHandler.handleRequest(request, context);
+
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.getBody().contains("test-token-recuperado"));
+
+        ArgumentCaptor<AdminCreateUserRequest> createCaptor = ArgumentCaptor.forClass(AdminCreateUserRequest.class);
+        verify(cognitoClient, times(1)).adminCreateUser(createCaptor.capture());
+        assertEquals("Lanchonete@2024", createCaptor.getValue().temporaryPassword());
+        verify(cognitoClient, times(1)).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+        verify(cognitoClient, times(1)).adminRespondToAuthChallenge(any(AdminRespondToAuthChallengeRequest.class));
+    }
+
+    @Test
+    @DisplayName("T20 - Sem chave de hash configurada, o evento não deve carregar nenhum derivado do CPF")
+    public void t20(@TempDir Path diretorio) throws Exception {
+        Path arquivo = diretorio.resolve("eventos.jsonl");
+        AuthEventPublisher publisher = new AuthEventPublisher(new ArquivoAuthEventSink(arquivo, objectMapper), 16, 10, 50);
+        AuthHandler handlerSemChave = new AuthHandler(config, cognitoClient, httpClient, objectMapper, publisher);
+
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"12345678909\"}");
+
+        when(httpResponse.statusCode()).thenReturn(409);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(httpResponse);
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenReturn(respostaAutenticada("test-token-sem-chave"));
+
+        handlerSemChave.handleRequest(request, context);
+        publisher.close();
+
+        JsonNode evento = objectMapper.readTree(Files.readAllLines(arquivo).get(0));
+        assertTrue(evento.get("cpfHash").isNull());
+    }
+
+    @Test
+    @DisplayName("T21 - IP que atingiu o limite de cadastros novos não deve criar mais clientes, mas clientes existentes continuam entrando")
+    public void t21() throws Exception {
+        String ip = "203.0.113.50";
+        String cpfNovo = CpfsDeTeste.cpfValido(987_654_321);
+        String cpfExistente = "52998224725";
+
+        HttpResponse<String> clienteEncontrado = mock(HttpResponse.class);
+        HttpResponse<String> clienteAusente = mock(HttpResponse.class);
+        when(httpResponse.statusCode()).thenReturn(201);
+        when(clienteEncontrado.statusCode()).thenReturn(200);
+        when(clienteAusente.statusCode()).thenReturn(404);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest httpRequest = invocation.getArgument(0);
+            if (httpRequest.method().equals("POST")) {
+                return httpResponse;
+            }
+            return httpRequest.uri().getPath().endsWith(cpfExistente) ? clienteEncontrado : clienteAusente;
+        });
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenAnswer(invocation -> {
+            AdminInitiateAuthRequest authRequest = invocation.getArgument(0);
+            return respostaAutenticada("test-token-" + authRequest.authParameters().get("USERNAME"));
+        });
+
+        for (int i = 0; i < 20; i++) {
+            APIGatewayProxyResponseEvent response = authHandler.handleRequest(
+                    requisicaoDoIp(ip, CpfsDeTeste.cpfValido(100_000_000 + i)), context);
+            assertEquals(200, response.getStatusCode());
+        }
+        verify(cognitoClient, times(20)).adminCreateUser(any(AdminCreateUserRequest.class));
+
+        APIGatewayProxyResponseEvent novoBloqueado = authHandler.handleRequest(requisicaoDoIp(ip, cpfNovo), context);
+        APIGatewayProxyResponseEvent existente = authHandler.handleRequest(requisicaoDoIp(ip, cpfExistente), context);
+
+        assertEquals(429, novoBloqueado.getStatusCode());
+        assertEquals(200, existente.getStatusCode());
+        ArgumentCaptor<HttpRequest> httpCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(22)).send(httpCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals(20, httpCaptor.getAllValues().stream().filter(r -> r.method().equals("POST")).count());
+        verify(cognitoClient, times(20)).adminCreateUser(any(AdminCreateUserRequest.class));
+        verify(cognitoClient, times(21)).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+    }
+
+    @Test
+    @DisplayName("T22 - Sem AUTH_EVENTS_HASH_KEY a configuração deve carregar e o login seguir, só sem cpfHash")
+    public void t22() {
+        AuthConfig configSemChave = AuthConfig.fromEnvironment(Map.of(
+                "USER_POOL_ID", "test-pool-id",
+                "CLIENT_ID", "test-client-id",
+                "CLIENTES_SERVICE_URL", "http://localhost:8080"));
+
+        assertFalse(configSemChave.temChaveHashCpf());
+        assertEquals("test-pool-id", configSemChave.getPools().get(0).getUserPoolId());
+    }
+
+    @Test
+    @DisplayName("T23 - IP bloqueado por CPFs inválidos deve continuar abrindo sessões anônimas")
+    public void t23() throws Exception {
+        String ip = "203.0.113.8";
+        for (int i = 0; i < 10; i++) {
+            authHandler.handleRequest(requisicaoDoIp(ip, "0000000000" + i), context);
+        }
+
+        when(cognitoClient.adminCreateUser(any(AdminCreateUserRequest.class)))
+                .thenReturn(AdminCreateUserResponse.builder().build());
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenReturn(respostaAutenticada("test-token-anonimo"));
+
+        APIGatewayProxyResponseEvent identificada = authHandler.handleRequest(requisicaoDoIp(ip, "52998224725"), context);
+        APIGatewayProxyResponseEvent anonima = authHandler.handleRequest(requisicaoDoIp(ip, ""), context);
+
+        assertEquals(429, identificada.getStatusCode());
+        assertEquals(200, anonima.getStatusCode());
+        assertTrue(anonima.getBody().contains("\"tipo\":\"ANONIMO\""));
+        verifyNoInteractions(httpClient);
+    }
+
+    @Test
+    @DisplayName("T24 - Limites contra abuso devem vir do ambiente, com os padrões quando ausentes ou inválidos")
+    public void t24() {
+        LimitesAbuso limites = AuthConfig.lerLimites(Map.of(
+                "LIMITE_CPFS_INVALIDOS_POR_IP", "50",
+                "JANELA_CADASTROS_SEGUNDOS", "120",
+                "LIMITE_CADASTROS_POR_IP", "abc"));
+
+        assertEquals(50, limites.getCpfsInvalidosPorIp());
+        assertEquals(120_000, limites.getJanelaCadastrosMs());
+        assertEquals(20, limites.getCadastrosPorIp());
+        assertEquals(60_000, limites.getJanelaCpfsInvalidosMs());
+        assertEquals(600_000, limites.getJanelaCpfRecusadoMs());
+    }
+
+    @Test
+    @DisplayName("T25 - Cliente existente realocado para um pool novo deve entrar mesmo a partir de um IP acima do limite de cadastros")
+    public void t25() throws Exception {
+        String ip = "203.0.113.60";
+        String cpfRealocado = "52998224725";
+        List<CognitoPool> pools = List.of(
+                new CognitoPool("pool-a", "client-a"),
+                new CognitoPool("pool-b", "client-b"));
+        LimitesAbuso umCadastroPorIp = new LimitesAbuso(10, 60_000, 600_000, 1, 600_000);
+        AuthHandler handlerComPools = new AuthHandler(
+                new AuthConfig(pools, "http://localhost:8080", false, null, umCadastroPorIp),
+                cognitoClient, httpClient, objectMapper);
+        CognitoPool poolNovo = new RoteadorPools(pools).poolParaCpf(cpfRealocado);
+
+        HttpResponse<String> clienteEncontrado = mock(HttpResponse.class);
+        when(httpResponse.statusCode()).thenReturn(201);
+        when(clienteEncontrado.statusCode()).thenReturn(200);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation ->
+                ((HttpRequest) invocation.getArgument(0)).method().equals("POST") ? httpResponse : clienteEncontrado);
+
+        // O CPF realocado tem usuário só no pool antigo: o primeiro login no pool novo não o encontra
+        Set<String> usuariosCriados = new HashSet<>();
+        when(cognitoClient.adminCreateUser(any(AdminCreateUserRequest.class))).thenAnswer(invocation -> {
+            AdminCreateUserRequest createRequest = invocation.getArgument(0);
+            usuariosCriados.add(createRequest.userPoolId() + "/" + createRequest.username());
+            return AdminCreateUserResponse.builder().build();
+        });
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenAnswer(invocation -> {
+            AdminInitiateAuthRequest authRequest = invocation.getArgument(0);
+            if (!usuariosCriados.contains(authRequest.userPoolId() + "/" + authRequest.authParameters().get("USERNAME"))) {
+                throw UserNotFoundException.builder().message("User does not exist").build();
+            }
+            return respostaAutenticada("test-token-realocado");
+        });
+
+        APIGatewayProxyResponseEvent cadastro = handlerComPools.handleRequest(
+                requisicaoDoIp(ip, CpfsDeTeste.cpfValido(100_000_000)), context);
+        APIGatewayProxyResponseEvent realocado = handlerComPools.handleRequest(requisicaoDoIp(ip, cpfRealocado), context);
+
+        assertEquals(200, cadastro.getStatusCode());
+        assertEquals(200, realocado.getStatusCode());
+        assertTrue(realocado.getBody().contains("test-token-realocado"));
+        assertTrue(usuariosCriados.contains(poolNovo.getUserPoolId() + "/" + cpfRealocado));
+
+        ArgumentCaptor<HttpRequest> httpCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(2)).send(httpCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals("POST", httpCaptor.getAllValues().get(0).method());
+        assertEquals("GET", httpCaptor.getAllValues().get(1).method());
+    }
+
+    private APIGatewayProxyRequestEvent requisicaoDoIp(String ip, String cpf) {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"" + cpf + "\"}");
+        request.setRequestContext(new APIGatewayProxyRequestEvent.ProxyRequestContext()
+                .withIdentity(new APIGatewayProxyRequestEvent.RequestIdentity().withSourceIp(ip)));
+        return request;
+    }
+
+    private AdminInitiateAuthResponse respostaAutenticada(String idToken) {
+        return AdminInitiateAuthResponse.builder()
+                .authenticationResult(AuthenticationResultType.builder()
+                        .idToken(idToken)
+                        .accessToken("test-access")
+                        .expiresIn(3600)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.lanchonete.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheRejeicaoTest {
+
+    private final AtomicLong agora = new AtomicLong(1_000);
+
+    @Test
+    @DisplayName("C1 - Deve bloquear a chave ao atingir o limite de ocorrências e liberar ao fim da janela")
+    public void c1() {
+        CacheRejeicao cache = new CacheRejeicao(3, 60_000, 100, agora::get);
+
+        cache.registrar("10.0.0.1");
+        cache.registrar("10.0.0.1");
+        assertFalse(cache.bloqueado("10.0.0.1"));
+
+        cache.registrar("10.0.0.1");
+        assertTrue(cache.bloqueado("10.0.0.1"));
+        assertFalse(cache.bloqueado("10.0.0.2"));
+
+        agora.addAndGet(60_000);
+        assertFalse(cache.bloqueado("10.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("C2 - Deve manter no máximo a capacidade configurada, descartando a chave usada há mais tempo")
+    public void c2() {
+        CacheRejeicao cache = new CacheRejeicao(1, 60_000, 2, agora::get);
+
+        cache.registrar("a");
+        cache.registrar("b");
+        cache.bloqueado("a");
+        cache.registrar("c");
+
+        assertEquals(2, cache.tamanho());
+        assertTrue(cache.bloqueado("a"));
+        assertFalse(cache.bloqueado("b"));
+        assertTrue(cache.bloqueado("c"));
+    }
+
+    @Test
+    @DisplayName("C3 - Deve ignorar chaves nulas (requisição sem IP de origem)")
+    public void c3() {
+        CacheRejeicao cache = new CacheRejeicao(1, 60_000, 10, agora::get);
+
+        cache.registrar(null);
+
+        assertFalse(cache.bloqueado(null));
+        assertEquals(0, cache.tamanho());
+    }
+}
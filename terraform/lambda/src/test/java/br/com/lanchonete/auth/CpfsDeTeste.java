@@ -0,0 +1,41 @@
+package br.com.lanchonete.auth;
+
+/**
+ * Gera CPFs para os testes a partir de uma base de 9 dígitos, com dígitos verificadores
+ * corretos ou com o último dígito errado.
+ */
+final class CpfsDeTeste {
+
+    private CpfsDeTeste() {
+    }
+
+    static String cpfValido(int base) {
+        String base9 = String.format("%09d", base);
+        int[] d = new int[11];
+        for (int i = 0; i < 9; i++) {
+            d[i] = base9.charAt(i) - '0';
+        }
+        d[9] = digitoVerificador(d, 9);
+        d[10] = digitoVerificador(d, 10);
+        StringBuilder cpf = new StringBuilder();
+        for (int digito : d) {
+            cpf.append(digito);
+        }
+        return cpf.toString();
+    }
+
+    static String cpfComDigitoErrado(int base) {
+        String cpf = cpfValido(base);
+        char ultimo = (char) ('0' + (cpf.charAt(10) - '0' + 1) % 10);
+        return cpf.substring(0, 10) + ultimo;
+    }
+
+    private static int digitoVerificador(int[] d, int quantidade) {
+        int soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += d[i] * (quantidade + 1 - i);
+        }
+        int resto = soma * 10 % 11;
+        return resto == 10 ? 0 : resto;
+    }
+}
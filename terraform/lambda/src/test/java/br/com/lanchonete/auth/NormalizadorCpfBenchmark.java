@@ -0,0 +1,58 @@
+package br.com.lanchonete.auth;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+
+import java.net.http.HttpClient;
+import java.util.function.IntConsumer;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Micro-benchmark do custo por requisição da validação de CPF. Não roda com os testes;
+ * execute com:
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=br.com.lanchonete.auth.NormalizadorCpfBenchmark
+ */
+public class NormalizadorCpfBenchmark {
+
+    private static final int AQUECIMENTO = 2_000_000;
+    private static final int MEDICAO = 5_000_000;
+    private static final String[] ENTRADAS = {
+        "529.982.247-25", "52998224725", "52998224724", "abc123", "111.111.111-11", "9".repeat(15)
+    };
+
+    private static long sumidouro;
+
+    public static void main(String[] args) {
+        medir("regex replaceAll (limparCpf anterior)", i -> sumidouro += ENTRADAS[i % ENTRADAS.length].replaceAll("[^0-9]", "").length());
+        medir("NormalizadorCpf.normalizar", i -> sumidouro += NormalizadorCpf.normalizar(ENTRADAS[i % ENTRADAS.length]));
+        medir("NormalizadorCpf.normalizar (só inválidos)", i -> sumidouro += NormalizadorCpf.normalizar(ENTRADAS[2 + i % 4]));
+
+        AuthHandler handler = new AuthHandler(
+                new AuthConfig("bench-pool", "bench-client", "http://localhost:8080"),
+                mock(CognitoIdentityProviderClient.class), mock(HttpClient.class),
+                new ObjectMapper());
+        Context context = mock(Context.class);
+        APIGatewayProxyRequestEvent invalida = new APIGatewayProxyRequestEvent().withBody("{\"cpf\": \"52998224724\"}");
+        medir("AuthHandler.handleRequest rejeitando CPF inválido", i -> sumidouro += handler.handleRequest(invalida, context).getStatusCode());
+
+        System.out.println("(ignorar) " + sumidouro);
+    }
+
+    private static void medir(String nome, IntConsumer operacao) {
+        int repeticoes = nome.startsWith("AuthHandler") ? MEDICAO / 10 : MEDICAO;
+        for (int i = 0; i < AQUECIMENTO / (MEDICAO / repeticoes); i++) {
+            operacao.accept(i);
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticoes; i++) {
+            operacao.accept(i);
+        }
+        double nsPorOperacao = (double) (System.nanoTime() - inicio) / repeticoes;
+        System.out.printf("%-52s %10.1f ns/op%n", nome, nsPorOperacao);
+    }
+}
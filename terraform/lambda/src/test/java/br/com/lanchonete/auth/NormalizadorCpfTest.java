@@ -0,0 +1,40 @@
+package br.com.lanchonete.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NormalizadorCpfTest {
+
+    @Test
+    @DisplayName("N1 - Deve normalizar CPFs válidos, com ou sem formatação, preservando zeros à esquerda")
+    public void n1() {
+        assertEquals("52998224725", NormalizadorCpf.formatar(NormalizadorCpf.normalizar("52998224725")));
+        assertEquals("52998224725", NormalizadorCpf.formatar(NormalizadorCpf.normalizar("529.982.247-25")));
+        assertEquals("52998224725", NormalizadorCpf.formatar(NormalizadorCpf.normalizar(" 529 982 247 25 ")));
+        assertEquals("00000000191", NormalizadorCpf.formatar(NormalizadorCpf.normalizar("000.000.001-91")));
+    }
+
+    @Test
+    @DisplayName("N2 - Deve rejeitar CPFs com dígitos verificadores errados ou com todos os dígitos iguais")
+    public void n2() {
+        assertEquals(NormalizadorCpf.INVALIDO, NormalizadorCpf.normalizar("52998224724"));
+        assertEquals(NormalizadorCpf.INVALIDO, NormalizadorCpf.normalizar("52998224715"));
+        assertEquals(NormalizadorCpf.INVALIDO, NormalizadorCpf.normalizar("12345678900"));
+        for (char d = '0'; d <= '9'; d++) {
+            assertEquals(NormalizadorCpf.INVALIDO, NormalizadorCpf.normalizar(String.valueOf(d).repeat(11)));
+        }
+    }
+
+    @Test
+    @DisplayName("N3 - Deve rejeitar entradas malformadas: nulas, curtas, longas ou com caracteres inesperados")
+    public void n3() {
+        assertEquals(NormalizadorCpf.INVALIDO, NormalizadorCpf.normalizar(null));
+        assertEquals(NormalizadorCpf.INVALIDO, NormalizadorCpf.normalizar("5299822472"));
+        assertEquals(NormalizadorCpf.INVALIDO, NormalizadorCpf.normalizar("529982247250"));
+        assertEquals(NormalizadorCpf.INVALIDO, NormalizadorCpf.normalizar("529.982.247-2a"));
+        assertEquals(NormalizadorCpf.INVALIDO, NormalizadorCpf.normalizar("CPF 52998224725"));
+        assertEquals(NormalizadorCpf.INVALIDO, NormalizadorCpf.normalizar("5".repeat(10_000)));
+    }
+}
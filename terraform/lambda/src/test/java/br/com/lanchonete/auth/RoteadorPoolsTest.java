@@ -0,0 +1,124 @@
+package br.com.lanchonete.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoteadorPoolsTest {
+
+    private static final int TOTAL_CPFS = 30000;
+
+    @Test
+    @DisplayName("R1 - Deve rotear o mesmo CPF sempre para o mesmo pool, inclusive entre instâncias diferentes do roteador")
+    public void r1() {
+        RoteadorPools roteador = new RoteadorPools(pools(4));
+        RoteadorPools outraInstancia = new RoteadorPools(pools(4));
+
+        for (String cpf : cpfs(1000)) {
+            CognitoPool pool = roteador.poolParaCpf(cpf);
+            assertSame(pool, roteador.poolParaCpf(cpf));
+            assertEquals(pool.getUserPoolId(), outraInstancia.poolParaCpf(cpf).getUserPoolId());
+        }
+    }
+
+    @Test
+    @DisplayName("R2 - Deve distribuir CPFs de forma equilibrada entre os pools")
+    public void r2() {
+        int quantidadePools = 4;
+        RoteadorPools roteador = new RoteadorPools(pools(quantidadePools));
+
+        Map<String, Integer> carga = new HashMap<>();
+        for (String cpf : cpfs(TOTAL_CPFS)) {
+            carga.merge(roteador.poolParaCpf(cpf).getUserPoolId(), 1, Integer::sum);
+        }
+
+        int esperado = TOTAL_CPFS / quantidadePools;
+        assertEquals(quantidadePools, carga.size());
+        carga.values().forEach(quantidade ->
+                assertTrue(Math.abs(quantidade - esperado) < esperado * 0.2,
+                        "Carga desequilibrada: " + carga));
+    }
+
+    @Test
+    @DisplayName("R3 - Ao adicionar um pool, apenas a fração proporcional de CPFs deve mudar, e somente para o pool novo")
+    public void r3() {
+        RoteadorPools antes = new RoteadorPools(pools(4));
+        RoteadorPools depois = new RoteadorPools(pools(5));
+        String poolNovo = pools(5).get(4).getUserPoolId();
+
+        int realocados = 0;
+        for (String cpf : cpfs(TOTAL_CPFS)) {
+            String poolAntes = antes.poolParaCpf(cpf).getUserPoolId();
+            String poolDepois = depois.poolParaCpf(cpf).getUserPoolId();
+            if (!poolAntes.equals(poolDepois)) {
+                assertEquals(poolNovo, poolDepois);
+                realocados++;
+            }
+        }
+
+        int esperado = TOTAL_CPFS / 5;
+        assertTrue(Math.abs(realocados - esperado) < esperado * 0.25,
+                "CPFs realocados: " + realocados + ", esperado ~" + esperado);
+    }
+
+    @Test
+    @DisplayName("R4 - Deve espalhar sessões anônimas em round-robin entre os pools, a partir de qualquer pool inicial")
+    public void r4() {
+        List<CognitoPool> pools = pools(3);
+        RoteadorPools roteador = new RoteadorPools(pools);
+
+        int inicio = pools.indexOf(roteador.poolParaAnonimo());
+        assertTrue(inicio >= 0);
+        for (int i = 1; i < 9; i++) {
+            assertSame(pools.get((inicio + i) % 3), roteador.poolParaAnonimo());
+        }
+    }
+
+    @Test
+    @DisplayName("R6 - Ambientes novos não devem começar todos o round-robin anônimo pelo mesmo pool")
+    public void r6() {
+        List<CognitoPool> pools = pools(4);
+        Set<CognitoPool> primeirosPools = new HashSet<>();
+
+        for (int i = 0; i < 200; i++) {
+            primeirosPools.add(new RoteadorPools(pools).poolParaAnonimo());
+        }
+
+        assertEquals(4, primeirosPools.size());
+    }
+
+    @Test
+    @DisplayName("R5 - Deve ler pares de pool e client das variáveis separadas por vírgula e rejeitar listas de tamanhos diferentes")
+    public void r5() {
+        List<CognitoPool> pools = AuthConfig.parsePools("pool-a, pool-b", "client-a, client-b");
+
+        assertEquals(2, pools.size());
+        assertEquals("pool-b", pools.get(1).getUserPoolId());
+        assertEquals("client-b", pools.get(1).getClientId());
+        assertThrows(IllegalArgumentException.class, () -> AuthConfig.parsePools("pool-a,pool-b", "client-a"));
+    }
+
+    private static List<CognitoPool> pools(int quantidade) {
+        List<CognitoPool> pools = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            pools.add(new CognitoPool("us-east-1_pool" + i, "client-" + i));
+        }
+        return pools;
+    }
+
+    private static List<String> cpfs(int quantidade) {
+        List<String> cpfs = new ArrayList<>();
+        for (long i = 0; i < quantidade; i++) {
+            cpfs.add(String.format("%011d", 10000000000L + i * 7919));
+        }
+        return cpfs;
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.lanchonete.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SqsAuthEventSinkTest {
+
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/lanchonete-auth-events";
+
+    @Mock
+    private SqsClient sqsClient;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("S1 - Deve dividir o lote em chamadas SendMessageBatch de até 10 mensagens, um evento JSON por mensagem")
+    public void s1() throws Exception {
+        when(sqsClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(SendMessageBatchResponse.builder().build());
+        SqsAuthEventSink sink = new SqsAuthEventSink(sqsClient, QUEUE_URL, objectMapper);
+
+        sink.enviar(eventos(25));
+
+        ArgumentCaptor<SendMessageBatchRequest> captor = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(sqsClient, times(3)).sendMessageBatch(captor.capture());
+        assertEquals(List.of(10, 10, 5), captor.getAllValues().stream().map(r -> r.entries().size()).toList());
+        assertEquals(QUEUE_URL, captor.getValue().queueUrl());
+        assertEquals("ANONIMO", objectMapper.readTree(captor.getValue().entries().get(0).messageBody()).get("fluxo").asText());
+    }
+
+    @Test
+    @DisplayName("S2 - Deve sinalizar erro quando o SQS recusa parte das mensagens")
+    public void s2() {
+        when(sqsClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(SendMessageBatchResponse.builder()
+                        .failed(BatchResultErrorEntry.builder().id("3").code("InternalError").senderFault(false).build())
+                        .build());
+        SqsAuthEventSink sink = new SqsAuthEventSink(sqsClient, QUEUE_URL, objectMapper);
+
+        assertThrows(IllegalStateException.class, () -> sink.enviar(eventos(5)));
+    }
+
+    @Test
+    @DisplayName("S3 - Deve exigir a URL da fila")
+    public void s3() {
+        assertThrows(IllegalArgumentException.class, () -> new SqsAuthEventSink(sqsClient, null, objectMapper));
+    }
+
+    private static List<AuthEvent> eventos(int quantidade) {
+        List<AuthEvent> eventos = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            eventos.add(new AuthEvent(System.currentTimeMillis(), "ANONIMO", "SUCESSO", 200, 10,
+                    List.of("cognito.adminInitiateAuth"), null, "test-pool-id"));
+        }
+        return eventos;
+    }
+}
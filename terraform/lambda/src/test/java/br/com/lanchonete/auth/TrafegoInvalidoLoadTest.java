@@ -0,0 +1,176 @@
+package br.com.lanchonete.auth;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminSetUserPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminSetUserPasswordResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserNotFoundException;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Simula uma mistura de tráfego legítimo e lixo e conta, por grupo, as chamadas remotas
+ * que chegam a ser feitas:
+ * CPFs malformados, dígitos verificadores errados, bots insistindo com CPFs inválidos do
+ * mesmo IP e bots cadastrando CPFs novos com dígitos válidos.
+ */
+public class TrafegoInvalidoLoadTest {
+
+    private static final int TOTAL_REQUISICOES = 10_000;
+    private static final String[] IPS_BOT_INVALIDO = {"198.51.100.1", "198.51.100.2", "198.51.100.3"};
+    private static final String[] IPS_BOT_CADASTRO = {"198.51.100.11", "198.51.100.12", "198.51.100.13"};
+    private static final int LIMITE_CADASTROS_POR_IP = 20;
+    // Antes da validação, toda requisição com CPF fazia ao menos a chamada ao serviço de
+    // clientes e um adminInitiateAuth; CPFs novos faziam ainda mais
+    private static final int CHAMADAS_MINIMAS_CAMINHO_ANTERIOR = 2;
+
+    private enum Grupo { LEGITIMO, MALFORMADO, DIGITO_ERRADO, BOT_INVALIDO, BOT_CADASTRO }
+
+    private final AtomicInteger chamadas = new AtomicInteger();
+    private final Set<String> usuariosCognito = new HashSet<>();
+    private int statusClientes;
+
+    @Test
+    @DisplayName("L1 - Com 70% de tráfego abusivo, lixo não deve chegar à rede e bots de cadastro devem parar no limite por IP")
+    @SuppressWarnings("unchecked")
+    public void l1() throws Exception {
+        HttpClient httpClient = mock(HttpClient.class);
+        HttpResponse<String> respostaClientes = mock(HttpResponse.class);
+        when(respostaClientes.statusCode()).thenAnswer(invocation -> statusClientes);
+        // Só CPFs que nunca foram cadastrados chegam à consulta, então ela sempre devolve 404
+        HttpResponse<String> clienteAusente = mock(HttpResponse.class);
+        when(clienteAusente.statusCode()).thenReturn(404);
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            chamadas.incrementAndGet();
+            return ((HttpRequest) invocation.getArgument(0)).method().equals("POST") ? respostaClientes : clienteAusente;
+        });
+
+        CognitoIdentityProviderClient cognitoClient = mock(CognitoIdentityProviderClient.class);
+        when(cognitoClient.adminCreateUser(any(AdminCreateUserRequest.class))).thenAnswer(invocation -> {
+            chamadas.incrementAndGet();
+            usuariosCognito.add(((AdminCreateUserRequest) invocation.getArgument(0)).username());
+            return AdminCreateUserResponse.builder().build();
+        });
+        when(cognitoClient.adminSetUserPassword(any(AdminSetUserPasswordRequest.class))).thenAnswer(invocation -> {
+            chamadas.incrementAndGet();
+            return AdminSetUserPasswordResponse.builder().build();
+        });
+        when(cognitoClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenAnswer(invocation -> {
+            chamadas.incrementAndGet();
+            String username = ((AdminInitiateAuthRequest) invocation.getArgument(0)).authParameters().get("USERNAME");
+            if (!usuariosCognito.contains(username)) {
+                throw UserNotFoundException.builder().message("User does not exist").build();
+            }
+            return AdminInitiateAuthResponse.builder()
+                    .authenticationResult(AuthenticationResultType.builder().idToken("token").expiresIn(3600).build())
+                    .build();
+        });
+
+        AuthHandler handler = new AuthHandler(
+                new AuthConfig("test-pool-id", "test-client-id", "http://localhost:8080"),
+                cognitoClient, httpClient, new ObjectMapper());
+        Context context = mock(Context.class);
+
+        Random random = new Random(42);
+        Map<Grupo, Integer> requisicoes = new EnumMap<>(Grupo.class);
+        Map<Grupo, Integer> chamadasPorGrupo = new EnumMap<>(Grupo.class);
+        Map<Grupo, Integer> sucessos = new EnumMap<>(Grupo.class);
+
+        for (int i = 0; i < TOTAL_REQUISICOES; i++) {
+            int sorteio = random.nextInt(100);
+            String ip = "10.0." + (i / 256 % 256) + "." + (i % 256);
+            statusClientes = 409;
+            Grupo grupo;
+            String cpf;
+            if (sorteio < 30) {
+                grupo = Grupo.LEGITIMO;
+                cpf = CpfsDeTeste.cpfValido(100_000_000 + random.nextInt(400_000_000));
+                usuariosCognito.add(cpf);
+            } else if (sorteio < 50) {
+                grupo = Grupo.MALFORMADO;
+                cpf = "abc" + random.nextInt(1_000_000);
+            } else if (sorteio < 70) {
+                grupo = Grupo.DIGITO_ERRADO;
+                cpf = CpfsDeTeste.cpfComDigitoErrado(100_000_000 + random.nextInt(800_000_000));
+            } else if (sorteio < 80) {
+                grupo = Grupo.BOT_INVALIDO;
+                ip = IPS_BOT_INVALIDO[random.nextInt(IPS_BOT_INVALIDO.length)];
+                cpf = random.nextBoolean() ? CpfsDeTeste.cpfComDigitoErrado(random.nextInt(999_999_999)) : "9" + random.nextInt(1000);
+            } else {
+                grupo = Grupo.BOT_CADASTRO;
+                ip = IPS_BOT_CADASTRO[random.nextInt(IPS_BOT_CADASTRO.length)];
+                cpf = CpfsDeTeste.cpfValido(500_000_000 + random.nextInt(400_000_000));
+                statusClientes = 201;
+            }
+
+            int chamadasAntes = chamadas.get();
+            APIGatewayProxyResponseEvent response = handler.handleRequest(requisicao(ip, cpf), context);
+            requisicoes.merge(grupo, 1, Integer::sum);
+            chamadasPorGrupo.merge(grupo, chamadas.get() - chamadasAntes, Integer::sum);
+            if (response.getStatusCode() == 200) {
+                sucessos.merge(grupo, 1, Integer::sum);
+            }
+        }
+
+        int legitimas = requisicoes.get(Grupo.LEGITIMO);
+        int botCadastro = requisicoes.get(Grupo.BOT_CADASTRO);
+        int cadastrosPermitidos = IPS_BOT_CADASTRO.length * LIMITE_CADASTROS_POR_IP;
+        int lixo = TOTAL_REQUISICOES - legitimas;
+
+        // Todas as chamadas feitas passaram pelos contadores
+        assertEquals(chamadas.get(), mockingDetails(httpClient).getInvocations().size()
+                + mockingDetails(cognitoClient).getInvocations().size());
+
+        // Legítimos: POST com 409 + adminInitiateAuth, todos atendidos
+        assertEquals(legitimas, sucessos.get(Grupo.LEGITIMO));
+        assertEquals(legitimas * 2, chamadasPorGrupo.get(Grupo.LEGITIMO));
+
+        // CPFs sintaticamente inválidos nunca chegam à rede
+        assertEquals(0, chamadasPorGrupo.get(Grupo.MALFORMADO));
+        assertEquals(0, chamadasPorGrupo.get(Grupo.DIGITO_ERRADO));
+        assertEquals(0, chamadasPorGrupo.get(Grupo.BOT_INVALIDO));
+
+        // Bots de cadastro: só os primeiros cadastros por IP criam cliente e usuário (4 chamadas);
+        // depois disso cada tentativa custa uma consulta ao serviço de clientes e nada é criado
+        assertEquals(cadastrosPermitidos, sucessos.get(Grupo.BOT_CADASTRO));
+        assertEquals(cadastrosPermitidos * 4 + (botCadastro - cadastrosPermitidos),
+                chamadasPorGrupo.get(Grupo.BOT_CADASTRO));
+        verify(cognitoClient, times(cadastrosPermitidos)).adminCreateUser(any(AdminCreateUserRequest.class));
+
+        // Chamadas evitadas em relação ao limite inferior do caminho anterior
+        int chamadasDoLixo = chamadas.get() - chamadasPorGrupo.get(Grupo.LEGITIMO);
+        int evitadas = lixo * CHAMADAS_MINIMAS_CAMINHO_ANTERIOR - chamadasDoLixo;
+        assertTrue(evitadas >= lixo * CHAMADAS_MINIMAS_CAMINHO_ANTERIOR * 0.8,
+                "Chamadas evitadas: " + evitadas + " de no mínimo " + lixo * CHAMADAS_MINIMAS_CAMINHO_ANTERIOR);
+    }
+
+    private static APIGatewayProxyRequestEvent requisicao(String ip, String cpf) {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody("{\"cpf\": \"" + cpf + "\"}");
+        request.setRequestContext(new APIGatewayProxyRequestEvent.ProxyRequestContext()
+                .withIdentity(new APIGatewayProxyRequestEvent.RequestIdentity().withSourceIp(ip)));
+        return request;
+    }
+}
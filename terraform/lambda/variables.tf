@@ -16,9 +16,27 @@ variable "clientes_service_url" {
   default     = ""
 }
 
+variable "log_level" {
+  description = "Nível de log da Lambda (DEBUG habilita o log passo a passo de cada login)"
+  type        = string
+  default     = "INFO"
+}
+
 locals {
   common_tags = {
     Projeto = var.nome_projeto
     Terraform = "true"
   }
-}
\ No newline at end of file
+}
+
+variable "limite_cpfs_invalidos_por_ip" {
+  description = "CPFs inválidos aceitos por IP em 1 minuto antes de recusar o fluxo identificado com 429"
+  type        = number
+  default     = 10
+}
+
+variable "limite_cadastros_por_ip" {
+  description = "Cadastros novos de clientes aceitos por IP em 10 minutos"
+  type        = number
+  default     = 20
+}
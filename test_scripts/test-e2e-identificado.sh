@@ -22,7 +22,7 @@ SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
 INFRA_DIR="$(dirname "$SCRIPT_DIR")"
 
 # CPF padrao para testes
-CLIENTE_CPF="12345678900"
+CLIENTE_CPF="52998224725"
 
 echo "==================================================================="
 echo "TESTE E2E: CLIENTE IDENTIFICADO (CPF: $CLIENTE_CPF)"